@@ -0,0 +1,78 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertx.micrometer.benchmarks;
+
+import io.micrometer.core.instrument.Clock;
+import io.vertx.micrometer.impl.meters.CoarseClock;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of reading the clocks available to time events, from several threads since the coarse clock is shared.
+ *
+ * @author Joel Takvorian
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class ClockBenchmark {
+
+  private Clock system;
+  private CoarseClock coarse;
+
+  @Setup
+  public void setup() {
+    system = Clock.SYSTEM;
+    coarse = new CoarseClock(1);
+  }
+
+  @TearDown
+  public void tearDown() {
+    coarse.close();
+  }
+
+  @Benchmark
+  public long nanoTime() {
+    return System.nanoTime();
+  }
+
+  @Benchmark
+  public long systemClock() {
+    return system.monotonicTime();
+  }
+
+  @Benchmark
+  public long coarseClock() {
+    return coarse.monotonicTime();
+  }
+}
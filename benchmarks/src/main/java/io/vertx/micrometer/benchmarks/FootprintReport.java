@@ -0,0 +1,135 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertx.micrometer.benchmarks;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.vertx.micrometer.Label;
+import io.vertx.micrometer.VertxPrometheusOptions;
+import io.vertx.micrometer.backends.PrometheusBackendRegistry;
+import io.vertx.micrometer.impl.meters.Counters;
+import io.vertx.micrometer.impl.meters.Gauges;
+import io.vertx.micrometer.impl.meters.Summaries;
+import io.vertx.micrometer.impl.meters.Timers;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Heap retained by a Prometheus registry and the Vert.x meter families feeding it, measured by walking the object graph
+ * with JOL:
+ * <ul>
+ *   <li>the bytes per series of each meter type, as created by the Vert.x metrics</li>
+ *   <li>the total heap of the HTTP server meters for a number of remotes times a number of paths</li>
+ * </ul>
+ * Run with {@code java -cp benchmarks.jar io.vertx.micrometer.benchmarks.FootprintReport [remotes] [paths]}. On JDK 9+,
+ * add {@code -Djdk.attach.allowAttachSelf=true} so that JOL can attach to the running VM.
+ *
+ * @author Joel Takvorian
+ */
+public class FootprintReport {
+  private static final int SERIES = 1000;
+  private static final Set<Label> ALL_LABELS = EnumSet.allOf(Label.class);
+
+  public static void main(String[] args) {
+    int remotes = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+    int paths = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+
+    System.out.println("Retained bytes per series");
+    perSeries("counter", false, r -> {
+      Counters counters = new Counters("vertx.test.counter", "", r, ALL_LABELS, 0, Label.REMOTE);
+      return v -> counters.get(v).increment();
+    });
+    perSeries("counter (sharded)", false, r -> {
+      Counters counters = new Counters("vertx.test.counter", "", r, ALL_LABELS, 0, true, null, Label.REMOTE);
+      return v -> counters.get(v).increment();
+    });
+    perSeries("gauge (LongAdder)", false, r -> {
+      Gauges<LongAdder> gauges = new Gauges<>("vertx.test.gauge", "", LongAdder::new, LongAdder::doubleValue, r, ALL_LABELS, 0, Label.REMOTE);
+      return v -> gauges.get(v).increment();
+    });
+    perSeries("timer", false, r -> timer(r, false, false));
+    perSeries("timer (publishQuantiles)", true, r -> timer(r, false, false));
+    perSeries("timer (sharded)", false, r -> timer(r, true, false));
+    perSeries("timer (compact histogram)", false, r -> timer(r, false, true));
+    perSeries("summary", false, r -> summary(r));
+    perSeries("summary (publishQuantiles)", true, r -> summary(r));
+
+    System.out.println();
+    System.out.println("HTTP server meters for " + remotes + " remotes x " + paths + " paths");
+    httpServer(remotes, paths, false);
+    httpServer(remotes, paths, true);
+  }
+
+  private static Consumer<String> timer(MeterRegistry registry, boolean sharded, boolean compact) {
+    Timers timers = new Timers("vertx.test.timer", "", registry, ALL_LABELS, 0, sharded, null, 1, compact, Label.REMOTE);
+    return v -> timers.get(v).record(1, TimeUnit.MILLISECONDS);
+  }
+
+  private static Consumer<String> summary(MeterRegistry registry) {
+    Summaries summaries = new Summaries("vertx.test.summary", "", registry, ALL_LABELS, 0, Label.REMOTE);
+    return v -> summaries.get(v).record(512);
+  }
+
+  private static void perSeries(String kind, boolean quantiles, Function<MeterRegistry, Consumer<String>> factory) {
+    MeterRegistry registry = prometheus(quantiles);
+    Consumer<String> series = factory.apply(registry);
+    // The first series also allocates the structures shared by the whole meter
+    series.accept("warmup");
+    long before = footprint(registry, series);
+    for (int i = 0; i < SERIES; i++) {
+      series.accept("remote-" + i);
+    }
+    long after = footprint(registry, series);
+    System.out.printf("  %-30s %10d%n", kind, (after - before) / SERIES);
+  }
+
+  private static void httpServer(int remotes, int paths, boolean quantiles) {
+    MeterRegistry registry = prometheus(quantiles);
+    Label[] keys = {Label.LOCAL, Label.REMOTE, Label.HTTP_PATH, Label.HTTP_METHOD};
+    Gauges<LongAdder> requests = new Gauges<>("vertx.http.server.requests", "", LongAdder::new, LongAdder::doubleValue, registry, ALL_LABELS, 0, keys);
+    Counters requestCount = new Counters("vertx.http.server.requestCount", "", registry, ALL_LABELS, 0, Label.LOCAL, Label.REMOTE, Label.HTTP_PATH, Label.HTTP_METHOD, Label.HTTP_CODE);
+    Timers responseTime = new Timers("vertx.http.server.responseTime", "", registry, ALL_LABELS, 0, Label.LOCAL, Label.REMOTE, Label.HTTP_PATH, Label.HTTP_METHOD, Label.HTTP_CODE);
+    for (int r = 0; r < remotes; r++) {
+      for (int p = 0; p < paths; p++) {
+        String remote = "10.0." + (r / 256) + "." + (r % 256);
+        String path = "/api/resource/" + p;
+        requests.get("0.0.0.0:8080", remote, path, "GET").increment();
+        requestCount.get("0.0.0.0:8080", remote, path, "GET", "200").increment();
+        responseTime.get("0.0.0.0:8080", remote, path, "GET", "200").record(1, TimeUnit.MILLISECONDS);
+      }
+    }
+    long total = footprint(registry, requests, requestCount, responseTime);
+    System.out.printf("  %-30s %10d bytes (%d per request series)%n", quantiles ? "with publishQuantiles" : "without publishQuantiles",
+      total, total / ((long) remotes * paths));
+  }
+
+  private static MeterRegistry prometheus(boolean quantiles) {
+    return new PrometheusBackendRegistry(new VertxPrometheusOptions()
+      .setEnabled(true)
+      .setPublishQuantiles(quantiles))
+      .getMeterRegistry();
+  }
+
+  private static long footprint(Object... roots) {
+    return GraphLayout.parseInstance(roots).totalSize();
+  }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertx.micrometer.benchmarks;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.vertx.micrometer.Match;
+import io.vertx.micrometer.MatchType;
+import io.vertx.micrometer.MetricsDomain;
+import io.vertx.micrometer.backends.BackendRegistries;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a meter lookup through the registry (which maps the meter id through all the filters) depending on
+ * the number of label matching rules.
+ *
+ * @author Joel Takvorian
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MatchersBenchmark {
+
+  @Param({"0", "10", "50", "200"})
+  public int rules;
+
+  private MeterRegistry registry;
+  private String[] paths;
+
+  @Setup
+  public void setup() {
+    registry = new SimpleMeterRegistry();
+    List<Match> matches = new ArrayList<>();
+    for (int i = 0; i < rules; i++) {
+      if (i % 2 == 0) {
+        matches.add(new Match().setDomain(MetricsDomain.HTTP_SERVER).setLabel("path")
+          .setValue("/api/resource" + i).setAlias("resource" + i));
+      } else {
+        matches.add(new Match().setDomain(MetricsDomain.HTTP_SERVER).setLabel("path")
+          .setValue("/api/resource" + i + "/[0-9]+").setType(MatchType.REGEX).setAlias("resource" + i));
+      }
+    }
+    BackendRegistries.registerMatchers(registry, matches);
+    paths = new String[Math.max(rules, 1)];
+    for (int i = 0; i < paths.length; i++) {
+      paths[i] = i % 2 == 0 ? "/api/resource" + i : "/api/resource" + i + "/42";
+    }
+  }
+
+  /**
+   * Index of the next path, per thread so that threads do not contend on it.
+   */
+  @State(Scope.Thread)
+  public static class Cursor {
+    private int next;
+
+    String path(MatchersBenchmark benchmark) {
+      String[] paths = benchmark.paths;
+      String path = paths[next];
+      next = next + 1 == paths.length ? 0 : next + 1;
+      return path;
+    }
+  }
+
+  @Benchmark
+  public Counter lookup(Cursor cursor) {
+    return Counter.builder("vertx.http.server.requestCount")
+      .tags("local", "localhost:8080", "method", "GET", "path", cursor.path(this))
+      .register(registry);
+  }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertx.micrometer.benchmarks;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.vertx.micrometer.Label;
+import io.vertx.micrometer.Match;
+import io.vertx.micrometer.MatchType;
+import io.vertx.micrometer.backends.BackendRegistries;
+import io.vertx.micrometer.impl.Labels;
+import io.vertx.micrometer.impl.meters.Counters;
+import io.vertx.micrometer.impl.meters.Gauges;
+import io.vertx.micrometer.impl.meters.Summaries;
+import io.vertx.micrometer.impl.meters.Timers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Throughput of the meters hot path, as used by the Vert.x metrics: looking up a series of a meter family by label
+ * values, then recording into it. Parameters cover the number of distinct label values, label matching rules and
+ * disabled labels.
+ * <p>
+ * Run {@link #main(String[])} to measure with 1, 4 and 16 threads and the GC profiler, whose {@code gc.alloc.rate.norm}
+ * gives the bytes allocated per operation. Otherwise, use the {@code -t} and {@code -prof gc} JMH options.
+ *
+ * @author Joel Takvorian
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetersBenchmark {
+  private static final Label[] KEYS = {Label.LOCAL, Label.HTTP_METHOD, Label.HTTP_PATH};
+
+  /**
+   * Number of distinct paths
+   */
+  @Param({"1", "100", "10000"})
+  public int cardinality;
+
+  /**
+   * Whether paths are aliased by label matching rules
+   */
+  @Param({"false", "true"})
+  public boolean matchers;
+
+  /**
+   * Whether the path label is disabled
+   */
+  @Param({"false", "true"})
+  public boolean disabledLabels;
+
+  private Counters counters;
+  private Gauges<LongAdder> gauges;
+  private Timers timers;
+  private Summaries summaries;
+  private String[] paths;
+
+  @Setup
+  public void setup() {
+    MeterRegistry registry = new SimpleMeterRegistry();
+    if (matchers) {
+      BackendRegistries.registerMatchers(registry, Collections.singletonList(new Match()
+        .setLabel(Label.HTTP_PATH.toString())
+        .setValue("/api/resource/[0-9]+")
+        .setType(MatchType.REGEX)
+        .setAlias("/api/resource")));
+    }
+    Set<Label> enabledLabels = EnumSet.allOf(Label.class);
+    if (disabledLabels) {
+      enabledLabels.remove(Label.HTTP_PATH);
+    }
+    counters = new Counters("vertx.http.server.requestCount", "", registry, enabledLabels, 0, KEYS);
+    gauges = new Gauges<>("vertx.http.server.requests", "", LongAdder::new, LongAdder::doubleValue, registry, enabledLabels, 0, KEYS);
+    timers = new Timers("vertx.http.server.responseTime", "", registry, enabledLabels, 0, KEYS);
+    summaries = new Summaries("vertx.http.server.bytesSent", "", registry, enabledLabels, 0, KEYS);
+    paths = new String[cardinality];
+    for (int i = 0; i < cardinality; i++) {
+      paths[i] = "/api/resource/" + i;
+    }
+  }
+
+  /**
+   * Index of the next path, per thread so that threads do not contend on it.
+   */
+  @State(Scope.Thread)
+  public static class Cursor {
+    private int next;
+
+    String path(MetersBenchmark benchmark) {
+      String[] paths = benchmark.paths;
+      String path = paths[next];
+      next = next + 1 == paths.length ? 0 : next + 1;
+      return path;
+    }
+  }
+
+  @Benchmark
+  public void counterIncrement(Cursor cursor) {
+    counters.get("localhost:8080", "GET", cursor.path(this)).increment();
+  }
+
+  @Benchmark
+  public void gaugeIncrement(Cursor cursor) {
+    gauges.get("localhost:8080", "GET", cursor.path(this)).increment();
+  }
+
+  @Benchmark
+  public void timerRecord(Cursor cursor) {
+    timers.get("localhost:8080", "GET", cursor.path(this)).record(1_000_000, TimeUnit.NANOSECONDS);
+  }
+
+  @Benchmark
+  public void summaryRecord(Cursor cursor) {
+    summaries.get("localhost:8080", "GET", cursor.path(this)).record(512);
+  }
+
+  @Benchmark
+  public List<Tag> labelsToTags(Cursor cursor) {
+    return Labels.toTags(KEYS, new String[]{"localhost:8080", "GET", cursor.path(this)});
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    for (int threads : new int[]{1, 4, 16}) {
+      new Runner(new OptionsBuilder()
+        .include(MetersBenchmark.class.getSimpleName())
+        .threads(threads)
+        .addProfiler(GCProfiler.class)
+        .build()).run();
+    }
+  }
+}
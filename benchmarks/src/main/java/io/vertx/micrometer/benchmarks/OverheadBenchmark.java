@@ -0,0 +1,152 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertx.micrometer.benchmarks;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.VertxOptions;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientOptions;
+import io.vertx.core.http.HttpServer;
+import io.vertx.micrometer.MicrometerMetricsOptions;
+import io.vertx.micrometer.VertxPrometheusOptions;
+import io.vertx.micrometer.backends.BackendRegistries;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overhead of the metrics on a Vert.x instance serving HTTP requests and event bus messages, all in-process.
+ * The load generator is a separate Vert.x instance without metrics, so that only the server side is instrumented.
+ * <p>
+ * Each JMH thread sends one request at a time and waits for its response: compare the throughput and, with
+ * {@link Mode#SampleTime}, the latency percentiles between configurations:
+ * <ul>
+ *   <li>{@code disabled}: no metrics</li>
+ *   <li>{@code noop}: Micrometer metrics enabled without backend</li>
+ *   <li>{@code prometheus}: Prometheus backend</li>
+ *   <li>{@code quantiles}: Prometheus backend publishing quantiles</li>
+ * </ul>
+ *
+ * @author Joel Takvorian
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class OverheadBenchmark {
+  private static final int PORT = 8089;
+  private static final String ADDRESS = "bench.address";
+  private static final Buffer RESPONSE = Buffer.buffer("Hello metrics");
+  private static final String[] PATHS = {"/users", "/orders", "/products", "/carts"};
+
+  @Param({"disabled", "noop", "prometheus", "quantiles"})
+  public String config;
+
+  private String registryName;
+  private Vertx vertx;
+  private Vertx loadGenerator;
+  private HttpClient client;
+
+  @Setup
+  public void setup() throws Exception {
+    registryName = UUID.randomUUID().toString();
+    VertxOptions vertxOptions = new VertxOptions();
+    if (!"disabled".equals(config)) {
+      MicrometerMetricsOptions options = new MicrometerMetricsOptions()
+        .setEnabled(true)
+        .setRegistryName(registryName);
+      if (!"noop".equals(config)) {
+        options.setPrometheusOptions(new VertxPrometheusOptions()
+          .setEnabled(true)
+          .setPublishQuantiles("quantiles".equals(config)));
+      }
+      vertxOptions.setMetricsOptions(options);
+    }
+    vertx = Vertx.vertx(vertxOptions);
+    vertx.eventBus().consumer(ADDRESS, msg -> msg.reply(msg.body()));
+    CompletableFuture<HttpServer> listening = new CompletableFuture<>();
+    vertx.createHttpServer()
+      .requestHandler(req -> req.response().end(RESPONSE))
+      .listen(PORT, "127.0.0.1", ar -> {
+        if (ar.succeeded()) {
+          listening.complete(ar.result());
+        } else {
+          listening.completeExceptionally(ar.cause());
+        }
+      });
+    listening.get(10, TimeUnit.SECONDS);
+
+    loadGenerator = Vertx.vertx();
+    client = loadGenerator.createHttpClient(new HttpClientOptions()
+      .setKeepAlive(true)
+      .setMaxPoolSize(16));
+  }
+
+  @TearDown
+  public void tearDown() throws Exception {
+    CompletableFuture<Void> closed = new CompletableFuture<>();
+    loadGenerator.close(ar -> vertx.close(ar2 -> closed.complete(null)));
+    closed.get(10, TimeUnit.SECONDS);
+    BackendRegistries.stop(registryName);
+  }
+
+  @Benchmark
+  public int httpRequest() throws Exception {
+    CompletableFuture<Integer> status = new CompletableFuture<>();
+    String path = PATHS[ThreadLocalRandom.current().nextInt(PATHS.length)];
+    client.get(PORT, "127.0.0.1", path, ar -> {
+      if (ar.succeeded()) {
+        ar.result().bodyHandler(body -> status.complete(ar.result().statusCode()));
+      } else {
+        status.completeExceptionally(ar.cause());
+      }
+    }).end();
+    return status.get(10, TimeUnit.SECONDS);
+  }
+
+  @Benchmark
+  public Object eventBusRequest() throws Exception {
+    CompletableFuture<Object> reply = new CompletableFuture<>();
+    vertx.eventBus().send(ADDRESS, "ping", ar -> {
+      if (ar.succeeded()) {
+        reply.complete(ar.result().body());
+      } else {
+        reply.completeExceptionally(ar.cause());
+      }
+    });
+    return reply.get(10, TimeUnit.SECONDS);
+  }
+}
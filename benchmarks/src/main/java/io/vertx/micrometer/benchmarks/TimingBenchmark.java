@@ -0,0 +1,95 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertx.micrometer.benchmarks;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.vertx.core.VertxOptions;
+import io.vertx.core.spi.metrics.EventBusMetrics;
+import io.vertx.core.spi.metrics.PoolMetrics;
+import io.vertx.core.spi.metrics.VertxMetrics;
+import io.vertx.micrometer.MicrometerMetricsOptions;
+import io.vertx.micrometer.backends.BackendRegistries;
+import io.vertx.micrometer.impl.VertxMetricsFactoryImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of timing a pool task and an event bus message through the metrics SPI. Run with {@code -prof gc} to get
+ * the allocation rate per operation ({@code gc.alloc.rate.norm}).
+ *
+ * @author Joel Takvorian
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimingBenchmark {
+
+  private String registryName;
+  private VertxMetrics metrics;
+  private PoolMetrics<Object> poolMetrics;
+  private EventBusMetrics<Object> eventBusMetrics;
+  private Object handler;
+
+  @Setup
+  @SuppressWarnings("unchecked")
+  public void setup() {
+    registryName = UUID.randomUUID().toString();
+    MicrometerMetricsOptions options = new MicrometerMetricsOptions()
+      .setEnabled(true)
+      .setRegistryName(registryName)
+      .setMicrometerRegistry(new SimpleMeterRegistry());
+    metrics = new VertxMetricsFactoryImpl().metrics(new VertxOptions().setMetricsOptions(options));
+    poolMetrics = (PoolMetrics<Object>) metrics.createPoolMetrics("worker", "bench", 10);
+    eventBusMetrics = (EventBusMetrics<Object>) metrics.createEventBusMetrics();
+    handler = eventBusMetrics.handlerRegistered("bench.address", null);
+  }
+
+  @TearDown
+  public void tearDown() {
+    metrics.close();
+    BackendRegistries.stop(registryName);
+  }
+
+  @Benchmark
+  public void poolTask() {
+    Object task = poolMetrics.submitted();
+    task = poolMetrics.begin(task);
+    poolMetrics.end(task, true);
+  }
+
+  @Benchmark
+  public void eventBusMessage() {
+    eventBusMetrics.scheduleMessage(handler, true);
+    eventBusMetrics.beginHandleMessage(handler, true);
+    eventBusMetrics.endHandleMessage(handler, null);
+  }
+}
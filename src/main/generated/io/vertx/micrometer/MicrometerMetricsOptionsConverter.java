@@ -14,6 +14,51 @@ public class MicrometerMetricsOptionsConverter {
   public static void fromJson(Iterable<java.util.Map.Entry<String, Object>> json, MicrometerMetricsOptions obj) {
     for (java.util.Map.Entry<String, Object> member : json) {
       switch (member.getKey()) {
+        case "asyncRecordingBufferSize":
+          if (member.getValue() instanceof Number) {
+            obj.setAsyncRecordingBufferSize(((Number)member.getValue()).intValue());
+          }
+          break;
+        case "asyncRecordingDomains":
+          if (member.getValue() instanceof JsonArray) {
+            java.util.LinkedHashSet<io.vertx.micrometer.MetricsDomain> list =  new java.util.LinkedHashSet<>();
+            ((Iterable<Object>)member.getValue()).forEach( item -> {
+              if (item instanceof String)
+                list.add(io.vertx.micrometer.MetricsDomain.valueOf((String)item));
+            });
+            obj.setAsyncRecordingDomains(list);
+          }
+          break;
+        case "asyncRecordingMaxDelay":
+          if (member.getValue() instanceof Number) {
+            obj.setAsyncRecordingMaxDelay(((Number)member.getValue()).longValue());
+          }
+          break;
+        case "coarseClockDomains":
+          if (member.getValue() instanceof JsonArray) {
+            java.util.LinkedHashSet<io.vertx.micrometer.MetricsDomain> list =  new java.util.LinkedHashSet<>();
+            ((Iterable<Object>)member.getValue()).forEach( item -> {
+              if (item instanceof String)
+                list.add(io.vertx.micrometer.MetricsDomain.valueOf((String)item));
+            });
+            obj.setCoarseClockDomains(list);
+          }
+          break;
+        case "coarseClockResolution":
+          if (member.getValue() instanceof Number) {
+            obj.setCoarseClockResolution(((Number)member.getValue()).longValue());
+          }
+          break;
+        case "compactHistogramDomains":
+          if (member.getValue() instanceof JsonArray) {
+            java.util.LinkedHashSet<io.vertx.micrometer.MetricsDomain> list =  new java.util.LinkedHashSet<>();
+            ((Iterable<Object>)member.getValue()).forEach( item -> {
+              if (item instanceof String)
+                list.add(io.vertx.micrometer.MetricsDomain.valueOf((String)item));
+            });
+            obj.setCompactHistogramDomains(list);
+          }
+          break;
         case "disabledMetricsCategories":
           if (member.getValue() instanceof JsonArray) {
             java.util.LinkedHashSet<io.vertx.micrometer.MetricsDomain> list =  new java.util.LinkedHashSet<>();
@@ -24,6 +69,16 @@ public class MicrometerMetricsOptionsConverter {
             obj.setDisabledMetricsCategories(list);
           }
           break;
+        case "distributions":
+          if (member.getValue() instanceof JsonArray) {
+            java.util.ArrayList<io.vertx.micrometer.DistributionOptions> list =  new java.util.ArrayList<>();
+            ((Iterable<Object>)member.getValue()).forEach( item -> {
+              if (item instanceof JsonObject)
+                list.add(new io.vertx.micrometer.DistributionOptions((JsonObject)item));
+            });
+            obj.setDistributions(list);
+          }
+          break;
         case "enabled":
           if (member.getValue() instanceof Boolean) {
             obj.setEnabled((Boolean)member.getValue());
@@ -54,6 +109,11 @@ public class MicrometerMetricsOptionsConverter {
             obj.setLabelMatches(list);
           }
           break;
+        case "labelMatchesCacheSize":
+          if (member.getValue() instanceof Number) {
+            obj.setLabelMatchesCacheSize(((Number)member.getValue()).intValue());
+          }
+          break;
         case "labelMatchs":
           if (member.getValue() instanceof JsonArray) {
             ((Iterable<Object>)member.getValue()).forEach( item -> {
@@ -72,6 +132,16 @@ public class MicrometerMetricsOptionsConverter {
             obj.setLabels(list);
           }
           break;
+        case "maxSeriesPerFamily":
+          if (member.getValue() instanceof Number) {
+            obj.setMaxSeriesPerFamily(((Number)member.getValue()).intValue());
+          }
+          break;
+        case "meterShardingEnabled":
+          if (member.getValue() instanceof Boolean) {
+            obj.setMeterShardingEnabled((Boolean)member.getValue());
+          }
+          break;
         case "prometheusOptions":
           if (member.getValue() instanceof JsonObject) {
             obj.setPrometheusOptions(new io.vertx.micrometer.VertxPrometheusOptions((JsonObject)member.getValue()));
@@ -82,6 +152,16 @@ public class MicrometerMetricsOptionsConverter {
             obj.setRegistryName((String)member.getValue());
           }
           break;
+        case "samplingRate":
+          if (member.getValue() instanceof Number) {
+            obj.setSamplingRate(((Number)member.getValue()).doubleValue());
+          }
+          break;
+        case "seriesIdleTimeout":
+          if (member.getValue() instanceof Number) {
+            obj.setSeriesIdleTimeout(((Number)member.getValue()).longValue());
+          }
+          break;
       }
     }
   }
@@ -91,11 +171,34 @@ public class MicrometerMetricsOptionsConverter {
   }
 
   public static void toJson(MicrometerMetricsOptions obj, java.util.Map<String, Object> json) {
+    json.put("asyncRecordingBufferSize", obj.getAsyncRecordingBufferSize());
+    if (obj.getAsyncRecordingDomains() != null) {
+      JsonArray array = new JsonArray();
+      obj.getAsyncRecordingDomains().forEach(item -> array.add(item.name()));
+      json.put("asyncRecordingDomains", array);
+    }
+    json.put("asyncRecordingMaxDelay", obj.getAsyncRecordingMaxDelay());
+    if (obj.getCoarseClockDomains() != null) {
+      JsonArray array = new JsonArray();
+      obj.getCoarseClockDomains().forEach(item -> array.add(item.name()));
+      json.put("coarseClockDomains", array);
+    }
+    json.put("coarseClockResolution", obj.getCoarseClockResolution());
+    if (obj.getCompactHistogramDomains() != null) {
+      JsonArray array = new JsonArray();
+      obj.getCompactHistogramDomains().forEach(item -> array.add(item.name()));
+      json.put("compactHistogramDomains", array);
+    }
     if (obj.getDisabledMetricsCategories() != null) {
       JsonArray array = new JsonArray();
       obj.getDisabledMetricsCategories().forEach(item -> array.add(item.name()));
       json.put("disabledMetricsCategories", array);
     }
+    if (obj.getDistributions() != null) {
+      JsonArray array = new JsonArray();
+      obj.getDistributions().forEach(item -> array.add(item.toJson()));
+      json.put("distributions", array);
+    }
     json.put("enabled", obj.isEnabled());
     if (obj.getInfluxDbOptions() != null) {
       json.put("influxDbOptions", obj.getInfluxDbOptions().toJson());
@@ -104,16 +207,21 @@ public class MicrometerMetricsOptionsConverter {
       json.put("jmxMetricsOptions", obj.getJmxMetricsOptions().toJson());
     }
     json.put("jvmMetricsEnabled", obj.isJvmMetricsEnabled());
+    json.put("labelMatchesCacheSize", obj.getLabelMatchesCacheSize());
     if (obj.getLabels() != null) {
       JsonArray array = new JsonArray();
       obj.getLabels().forEach(item -> array.add(item.name()));
       json.put("labels", array);
     }
+    json.put("maxSeriesPerFamily", obj.getMaxSeriesPerFamily());
+    json.put("meterShardingEnabled", obj.isMeterShardingEnabled());
     if (obj.getPrometheusOptions() != null) {
       json.put("prometheusOptions", obj.getPrometheusOptions().toJson());
     }
     if (obj.getRegistryName() != null) {
       json.put("registryName", obj.getRegistryName());
     }
+    json.put("samplingRate", obj.getSamplingRate());
+    json.put("seriesIdleTimeout", obj.getSeriesIdleTimeout());
   }
 }
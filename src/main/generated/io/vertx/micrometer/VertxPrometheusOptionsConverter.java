@@ -34,6 +34,26 @@ public class VertxPrometheusOptionsConverter {
             obj.setPublishQuantiles((Boolean)member.getValue());
           }
           break;
+        case "scrapeCacheDuration":
+          if (member.getValue() instanceof Number) {
+            obj.setScrapeCacheDuration(((Number)member.getValue()).longValue());
+          }
+          break;
+        case "scrapeCompression":
+          if (member.getValue() instanceof Boolean) {
+            obj.setScrapeCompression((Boolean)member.getValue());
+          }
+          break;
+        case "scrapeTimeout":
+          if (member.getValue() instanceof Number) {
+            obj.setScrapeTimeout(((Number)member.getValue()).longValue());
+          }
+          break;
+        case "scrapeWorkerPoolName":
+          if (member.getValue() instanceof String) {
+            obj.setScrapeWorkerPoolName((String)member.getValue());
+          }
+          break;
         case "startEmbeddedServer":
           if (member.getValue() instanceof Boolean) {
             obj.setStartEmbeddedServer((Boolean)member.getValue());
@@ -56,6 +76,12 @@ public class VertxPrometheusOptionsConverter {
     }
     json.put("enabled", obj.isEnabled());
     json.put("publishQuantiles", obj.isPublishQuantiles());
+    json.put("scrapeCacheDuration", obj.getScrapeCacheDuration());
+    json.put("scrapeCompression", obj.isScrapeCompression());
+    json.put("scrapeTimeout", obj.getScrapeTimeout());
+    if (obj.getScrapeWorkerPoolName() != null) {
+      json.put("scrapeWorkerPoolName", obj.getScrapeWorkerPoolName());
+    }
     json.put("startEmbeddedServer", obj.isStartEmbeddedServer());
   }
 }
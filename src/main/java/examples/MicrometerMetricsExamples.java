@@ -40,6 +40,7 @@ import io.vertx.ext.web.Router;
 import io.vertx.micrometer.*;
 import io.vertx.micrometer.backends.BackendRegistries;
 
+import java.util.Arrays;
 import java.util.EnumSet;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -105,6 +106,17 @@ public class MicrometerMetricsExamples {
     vertx.createHttpServer().requestHandler(router).listen(8080);
   }
 
+  public void setupPrometheusScrapeCache() {
+    Vertx vertx = Vertx.vertx(new VertxOptions().setMetricsOptions(
+      new MicrometerMetricsOptions()
+        .setPrometheusOptions(new VertxPrometheusOptions().setEnabled(true)
+          .setStartEmbeddedServer(true)
+          .setEmbeddedServerOptions(new HttpServerOptions().setPort(8080))
+          .setScrapeWorkerPoolName("prometheus-scrape")
+          .setScrapeCacheDuration(5000))
+        .setEnabled(true)));
+  }
+
   public void setupMinimalJMX() {
     Vertx vertx = Vertx.vertx(new VertxOptions().setMetricsOptions(
       new MicrometerMetricsOptions()
@@ -180,6 +192,58 @@ public class MicrometerMetricsExamples {
         .setEnabled(true)));
   }
 
+  public void setupWithMaxSeriesPerFamily() {
+    Vertx vertx = Vertx.vertx(new VertxOptions().setMetricsOptions(
+      new MicrometerMetricsOptions()
+        .setPrometheusOptions(new VertxPrometheusOptions().setEnabled(true))
+        .setLabels(EnumSet.of(Label.REMOTE, Label.LOCAL, Label.HTTP_CODE, Label.HTTP_PATH))
+        .setMaxSeriesPerFamily(1000)
+        .setMaxSeriesPerFamily(MetricsDomain.HTTP_SERVER, 200)
+        .setEnabled(true)));
+  }
+
+  public void setupWithMeterSharding() {
+    Vertx vertx = Vertx.vertx(new VertxOptions().setMetricsOptions(
+      new MicrometerMetricsOptions()
+        .setPrometheusOptions(new VertxPrometheusOptions().setEnabled(true))
+        .setMeterShardingEnabled(true)
+        .setEnabled(true)));
+  }
+
+  public void setupWithAsyncRecording() {
+    Vertx vertx = Vertx.vertx(new VertxOptions().setMetricsOptions(
+      new MicrometerMetricsOptions()
+        .setPrometheusOptions(new VertxPrometheusOptions().setEnabled(true))
+        .setAsyncRecordingDomains(EnumSet.of(MetricsDomain.HTTP_SERVER, MetricsDomain.NET_SERVER, MetricsDomain.EVENT_BUS))
+        .setAsyncRecordingMaxDelay(50)
+        .setEnabled(true)));
+  }
+
+  public void setupWithSampling() {
+    Vertx vertx = Vertx.vertx(new VertxOptions().setMetricsOptions(
+      new MicrometerMetricsOptions()
+        .setPrometheusOptions(new VertxPrometheusOptions().setEnabled(true))
+        .setSamplingRate(MetricsDomain.HTTP_SERVER, 0.1)
+        .setEnabled(true)));
+  }
+
+  public void setupWithCoarseClock() {
+    Vertx vertx = Vertx.vertx(new VertxOptions().setMetricsOptions(
+      new MicrometerMetricsOptions()
+        .setPrometheusOptions(new VertxPrometheusOptions().setEnabled(true))
+        .setCoarseClockDomains(EnumSet.of(MetricsDomain.EVENT_BUS, MetricsDomain.NAMED_POOLS))
+        .setCoarseClockResolution(1)
+        .setEnabled(true)));
+  }
+
+  public void setupWithCompactHistograms() {
+    Vertx vertx = Vertx.vertx(new VertxOptions().setMetricsOptions(
+      new MicrometerMetricsOptions()
+        .setPrometheusOptions(new VertxPrometheusOptions().setEnabled(true))
+        .addCompactHistogramDomain(MetricsDomain.HTTP_CLIENT)
+        .setEnabled(true)));
+  }
+
   public void useMicrometerFilters() {
     MeterRegistry registry = BackendRegistries.getDefaultNow();
     Pattern pattern = Pattern.compile("/foo/bar/.*");
@@ -246,4 +310,18 @@ public class MicrometerMetricsExamples {
           }
         });
   }
+
+  public void enableDistributionsPerMetric() {
+    Vertx vertx = Vertx.vertx(new VertxOptions().setMetricsOptions(
+      new MicrometerMetricsOptions()
+        .setPrometheusOptions(new VertxPrometheusOptions().setEnabled(true))
+        .addDistribution(new DistributionOptions()
+          .setName("vertx.http.server.responseTime")
+          .setSla(Arrays.asList(5.0, 10.0, 50.0, 100.0, 500.0)))
+        .addDistribution(new DistributionOptions()
+          .setDomain(MetricsDomain.EVENT_BUS)
+          .setPercentilesHistogram(true)
+          .setMaximumExpectedValue(1000.0))
+        .setEnabled(true)));
+  }
 }
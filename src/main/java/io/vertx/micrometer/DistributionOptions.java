@@ -0,0 +1,226 @@
+package io.vertx.micrometer;
+
+import io.vertx.codegen.annotations.DataObject;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Distribution configuration (histograms, percentiles, SLA buckets) of the timers and summaries of a domain, or of a
+ * single metric. Values are in milliseconds for timers, and in the recorded unit (e.g. bytes) for summaries.
+ * Unset fields are left to the registry configuration.
+ *
+ * @author Joel Takvorian
+ */
+@DataObject
+public class DistributionOptions {
+  private MetricsDomain domain;
+  private String name;
+  private Boolean percentilesHistogram;
+  private List<Double> percentiles;
+  private List<Double> sla;
+  private Double minimumExpectedValue;
+  private Double maximumExpectedValue;
+
+  /**
+   * Default constructor
+   */
+  public DistributionOptions() {
+  }
+
+  /**
+   * Copy constructor
+   *
+   * @param other The other {@link DistributionOptions} to copy when creating this
+   */
+  public DistributionOptions(DistributionOptions other) {
+    domain = other.domain;
+    name = other.name;
+    percentilesHistogram = other.percentilesHistogram;
+    percentiles = other.percentiles != null ? new ArrayList<>(other.percentiles) : null;
+    sla = other.sla != null ? new ArrayList<>(other.sla) : null;
+    minimumExpectedValue = other.minimumExpectedValue;
+    maximumExpectedValue = other.maximumExpectedValue;
+  }
+
+  /**
+   * Create an instance from a {@link JsonObject}
+   *
+   * @param json the JsonObject to create it from
+   */
+  public DistributionOptions(JsonObject json) {
+    if (json.containsKey("domain")) {
+      domain = MetricsDomain.valueOf(json.getString("domain"));
+    }
+    name = json.getString("name");
+    percentilesHistogram = json.getBoolean("percentilesHistogram");
+    percentiles = toDoubles(json.getJsonArray("percentiles"));
+    sla = toDoubles(json.getJsonArray("sla"));
+    minimumExpectedValue = json.getDouble("minimumExpectedValue");
+    maximumExpectedValue = json.getDouble("maximumExpectedValue");
+  }
+
+  private static List<Double> toDoubles(JsonArray array) {
+    if (array == null) {
+      return null;
+    }
+    return array.stream()
+      .map(v -> ((Number) v).doubleValue())
+      .collect(Collectors.toList());
+  }
+
+  /**
+   * @return a JSON representation of these options
+   */
+  public JsonObject toJson() {
+    JsonObject json = new JsonObject();
+    if (domain != null) {
+      json.put("domain", domain.name());
+    }
+    json.put("name", name);
+    json.put("percentilesHistogram", percentilesHistogram);
+    if (percentiles != null) {
+      json.put("percentiles", new JsonArray(new ArrayList<>(percentiles)));
+    }
+    if (sla != null) {
+      json.put("sla", new JsonArray(new ArrayList<>(sla)));
+    }
+    json.put("minimumExpectedValue", minimumExpectedValue);
+    json.put("maximumExpectedValue", maximumExpectedValue);
+    return json;
+  }
+
+  /**
+   * @return the domain
+   */
+  public MetricsDomain getDomain() {
+    return domain;
+  }
+
+  /**
+   * Set the domain whose timers and summaries are configured. Ignored when a metric name is set.
+   *
+   * @param domain the domain
+   * @return a reference to this, so the API can be used fluently
+   */
+  public DistributionOptions setDomain(MetricsDomain domain) {
+    this.domain = domain;
+    return this;
+  }
+
+  /**
+   * @return the metric name
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Set the name of the configured metric, such as {@code vertx.http.server.responseTime}. This configuration takes
+   * precedence over the one of its domain.
+   *
+   * @param name the metric name
+   * @return a reference to this, so the API can be used fluently
+   */
+  public DistributionOptions setName(String name) {
+    this.name = name;
+    return this;
+  }
+
+  /**
+   * @return whether a histogram suitable for percentiles computation is published, {@code null} if unset
+   */
+  public Boolean getPercentilesHistogram() {
+    return percentilesHistogram;
+  }
+
+  /**
+   * Set whether to publish a histogram suitable for computing aggregable percentiles in the backend (e.g. with
+   * Prometheus' {@code histogram_quantile}). Set it to {@code false} to turn off the histograms enabled by
+   * {@link VertxPrometheusOptions#setPublishQuantiles(boolean)} for this domain or metric.
+   *
+   * @param percentilesHistogram whether to publish a histogram
+   * @return a reference to this, so the API can be used fluently
+   */
+  public DistributionOptions setPercentilesHistogram(Boolean percentilesHistogram) {
+    this.percentilesHistogram = percentilesHistogram;
+    return this;
+  }
+
+  /**
+   * @return the percentiles computed client-side
+   */
+  public List<Double> getPercentiles() {
+    return percentiles;
+  }
+
+  /**
+   * Set percentiles to compute client-side, such as {@code 0.95} or {@code 0.99}. They cannot be aggregated across
+   * dimensions.
+   *
+   * @param percentiles the percentiles, between 0 and 1
+   * @return a reference to this, so the API can be used fluently
+   */
+  public DistributionOptions setPercentiles(List<Double> percentiles) {
+    this.percentiles = percentiles;
+    return this;
+  }
+
+  /**
+   * @return the SLA bucket boundaries
+   */
+  public List<Double> getSla() {
+    return sla;
+  }
+
+  /**
+   * Set explicit histogram bucket boundaries, published in addition to the percentiles histogram if any. Used alone,
+   * they give a histogram with only these buckets.
+   *
+   * @param sla the bucket boundaries, in milliseconds for timers
+   * @return a reference to this, so the API can be used fluently
+   */
+  public DistributionOptions setSla(List<Double> sla) {
+    this.sla = sla;
+    return this;
+  }
+
+  /**
+   * @return the minimum expected value
+   */
+  public Double getMinimumExpectedValue() {
+    return minimumExpectedValue;
+  }
+
+  /**
+   * Set the minimum expected value, which bounds the buckets of the percentiles histogram.
+   *
+   * @param minimumExpectedValue the minimum expected value, in milliseconds for timers
+   * @return a reference to this, so the API can be used fluently
+   */
+  public DistributionOptions setMinimumExpectedValue(Double minimumExpectedValue) {
+    this.minimumExpectedValue = minimumExpectedValue;
+    return this;
+  }
+
+  /**
+   * @return the maximum expected value
+   */
+  public Double getMaximumExpectedValue() {
+    return maximumExpectedValue;
+  }
+
+  /**
+   * Set the maximum expected value, which bounds the buckets of the percentiles histogram.
+   *
+   * @param maximumExpectedValue the maximum expected value, in milliseconds for timers
+   * @return a reference to this, so the API can be used fluently
+   */
+  public DistributionOptions setMaximumExpectedValue(Double maximumExpectedValue) {
+    this.maximumExpectedValue = maximumExpectedValue;
+    return this;
+  }
+}
@@ -15,6 +15,7 @@
  */
 package io.vertx.micrometer;
 
+import io.micrometer.core.instrument.Clock;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.vertx.codegen.annotations.DataObject;
 import io.vertx.codegen.annotations.GenIgnore;
@@ -50,15 +51,70 @@ public class MicrometerMetricsOptions extends MetricsOptions {
    */
   public static final boolean DEFAULT_JVM_METRICS_ENABLED = false;
 
+  /**
+   * Default maximum number of series per meter = 0 (unlimited).
+   */
+  public static final int DEFAULT_MAX_SERIES_PER_FAMILY = 0;
+
+  /**
+   * Default maximum number of label values whose regex matching outcome is memoized, per label = 1024
+   */
+  public static final int DEFAULT_LABEL_MATCHES_CACHE_SIZE = 1024;
+
+  /**
+   * Default idle time before series are removed = 0 (never).
+   */
+  public static final long DEFAULT_SERIES_IDLE_TIMEOUT = 0;
+
+  /**
+   * Default value for meter sharding = false.
+   */
+  public static final boolean DEFAULT_METER_SHARDING_ENABLED = false;
+
+  /**
+   * Default capacity of the asynchronous recording buffers = 8192.
+   */
+  public static final int DEFAULT_ASYNC_RECORDING_BUFFER_SIZE = 8192;
+
+  /**
+   * Default maximum delay before an asynchronously recorded value is applied = 100 ms.
+   */
+  public static final long DEFAULT_ASYNC_RECORDING_MAX_DELAY = 100;
+
+  /**
+   * Default sampling rate of timer and summary distributions = 1 (every value).
+   */
+  public static final double DEFAULT_SAMPLING_RATE = 1;
+
+  /**
+   * Default update period of the coarse clock = 1 ms.
+   */
+  public static final long DEFAULT_COARSE_CLOCK_RESOLUTION = 1;
+
   private Set<MetricsDomain> disabledMetricsCategories;
   private String registryName;
   private Set<Label> labels;
   private List<Match> labelMatches;
+  private int labelMatchesCacheSize;
+  private List<DistributionOptions> distributions;
   private MeterRegistry micrometerRegistry;
   private VertxInfluxDbOptions influxDbOptions;
   private VertxPrometheusOptions prometheusOptions;
   private VertxJmxMetricsOptions jmxMetricsOptions;
   private boolean jvmMetricsEnabled;
+  private int maxSeriesPerFamily;
+  private Map<MetricsDomain, Integer> domainMaxSeriesPerFamily;
+  private long seriesIdleTimeout;
+  private boolean meterShardingEnabled;
+  private Set<MetricsDomain> asyncRecordingDomains;
+  private int asyncRecordingBufferSize;
+  private long asyncRecordingMaxDelay;
+  private double samplingRate;
+  private Map<MetricsDomain, Double> domainSamplingRate;
+  private Clock clock;
+  private Set<MetricsDomain> coarseClockDomains;
+  private long coarseClockResolution;
+  private Set<MetricsDomain> compactHistogramDomains;
 
   /**
    * Creates default options for Micrometer metrics.
@@ -68,7 +124,22 @@ public class MicrometerMetricsOptions extends MetricsOptions {
     registryName = DEFAULT_REGISTRY_NAME;
     labels = EnumSet.copyOf(DEFAULT_LABELS);
     labelMatches = new ArrayList<>();
+    labelMatchesCacheSize = DEFAULT_LABEL_MATCHES_CACHE_SIZE;
+    distributions = new ArrayList<>();
     jvmMetricsEnabled = DEFAULT_JVM_METRICS_ENABLED;
+    maxSeriesPerFamily = DEFAULT_MAX_SERIES_PER_FAMILY;
+    domainMaxSeriesPerFamily = new EnumMap<>(MetricsDomain.class);
+    seriesIdleTimeout = DEFAULT_SERIES_IDLE_TIMEOUT;
+    meterShardingEnabled = DEFAULT_METER_SHARDING_ENABLED;
+    asyncRecordingDomains = EnumSet.noneOf(MetricsDomain.class);
+    asyncRecordingBufferSize = DEFAULT_ASYNC_RECORDING_BUFFER_SIZE;
+    asyncRecordingMaxDelay = DEFAULT_ASYNC_RECORDING_MAX_DELAY;
+    samplingRate = DEFAULT_SAMPLING_RATE;
+    domainSamplingRate = new EnumMap<>(MetricsDomain.class);
+    clock = Clock.SYSTEM;
+    coarseClockDomains = EnumSet.noneOf(MetricsDomain.class);
+    coarseClockResolution = DEFAULT_COARSE_CLOCK_RESOLUTION;
+    compactHistogramDomains = EnumSet.noneOf(MetricsDomain.class);
   }
 
   /**
@@ -80,6 +151,9 @@ public class MicrometerMetricsOptions extends MetricsOptions {
     registryName = other.registryName;
     labels = other.labels != null ? EnumSet.copyOf(other.labels) : EnumSet.noneOf(Label.class);
     labelMatches = new ArrayList<>(other.labelMatches);
+    labelMatchesCacheSize = other.labelMatchesCacheSize;
+    distributions = new ArrayList<>();
+    other.distributions.forEach(d -> distributions.add(new DistributionOptions(d)));
     micrometerRegistry = other.micrometerRegistry;
     if (other.influxDbOptions != null) {
       influxDbOptions = new VertxInfluxDbOptions(other.influxDbOptions);
@@ -91,6 +165,19 @@ public class MicrometerMetricsOptions extends MetricsOptions {
       jmxMetricsOptions = new VertxJmxMetricsOptions(other.jmxMetricsOptions);
     }
     jvmMetricsEnabled = other.jvmMetricsEnabled;
+    maxSeriesPerFamily = other.maxSeriesPerFamily;
+    domainMaxSeriesPerFamily = new EnumMap<>(other.domainMaxSeriesPerFamily);
+    seriesIdleTimeout = other.seriesIdleTimeout;
+    meterShardingEnabled = other.meterShardingEnabled;
+    asyncRecordingDomains = other.asyncRecordingDomains != null ? EnumSet.copyOf(other.asyncRecordingDomains) : EnumSet.noneOf(MetricsDomain.class);
+    asyncRecordingBufferSize = other.asyncRecordingBufferSize;
+    asyncRecordingMaxDelay = other.asyncRecordingMaxDelay;
+    samplingRate = other.samplingRate;
+    domainSamplingRate = new EnumMap<>(other.domainSamplingRate);
+    clock = other.clock;
+    coarseClockDomains = other.coarseClockDomains != null ? EnumSet.copyOf(other.coarseClockDomains) : EnumSet.noneOf(MetricsDomain.class);
+    coarseClockResolution = other.coarseClockResolution;
+    compactHistogramDomains = other.compactHistogramDomains != null ? EnumSet.copyOf(other.compactHistogramDomains) : EnumSet.noneOf(MetricsDomain.class);
   }
 
   /**
@@ -100,6 +187,8 @@ public class MicrometerMetricsOptions extends MetricsOptions {
     this();
     MicrometerMetricsOptionsConverter.fromJson(json, this);
     labelMatches = loadLabelMatches(json);
+    loadDomainMaxSeriesPerFamily(json);
+    loadDomainSamplingRate(json);
   }
 
   /**
@@ -109,6 +198,16 @@ public class MicrometerMetricsOptions extends MetricsOptions {
   public JsonObject toJson() {
     JsonObject json = new JsonObject();
     MicrometerMetricsOptionsConverter.toJson(this, json);
+    if (!domainMaxSeriesPerFamily.isEmpty()) {
+      JsonObject domains = new JsonObject();
+      domainMaxSeriesPerFamily.forEach((domain, max) -> domains.put(domain.name(), max));
+      json.put("domainMaxSeriesPerFamily", domains);
+    }
+    if (!domainSamplingRate.isEmpty()) {
+      JsonObject domains = new JsonObject();
+      domainSamplingRate.forEach((domain, rate) -> domains.put(domain.name(), rate));
+      json.put("domainSamplingRate", domains);
+    }
     return json;
   }
 
@@ -123,6 +222,24 @@ public class MicrometerMetricsOptions extends MetricsOptions {
     return list;
   }
 
+  private void loadDomainMaxSeriesPerFamily(JsonObject json) {
+    JsonObject domains = json.getJsonObject("domainMaxSeriesPerFamily", new JsonObject());
+    domains.forEach(entry -> {
+      if (entry.getValue() instanceof Number) {
+        setMaxSeriesPerFamily(MetricsDomain.valueOf(entry.getKey()), ((Number) entry.getValue()).intValue());
+      }
+    });
+  }
+
+  private void loadDomainSamplingRate(JsonObject json) {
+    JsonObject domains = json.getJsonObject("domainSamplingRate", new JsonObject());
+    domains.forEach(entry -> {
+      if (entry.getValue() instanceof Number) {
+        setSamplingRate(MetricsDomain.valueOf(entry.getKey()), ((Number) entry.getValue()).doubleValue());
+      }
+    });
+  }
+
   /**
    * Set whether metrics will be enabled on the Vert.x instance. Metrics are not enabled by default.
    */
@@ -255,6 +372,58 @@ public class MicrometerMetricsOptions extends MetricsOptions {
     return this;
   }
 
+  /**
+   * @return the maximum number of label values whose regex matching outcome is memoized, per label
+   */
+  public int getLabelMatchesCacheSize() {
+    return labelMatchesCacheSize;
+  }
+
+  /**
+   * Set the maximum number of label values whose regex matching outcome is memoized, per label. Once full, the least
+   * recently used values are evicted first. Defaults to {@code 1024}.
+   *
+   * @param labelMatchesCacheSize the cache size, must be positive
+   * @return a reference to this, so the API can be used fluently
+   */
+  public MicrometerMetricsOptions setLabelMatchesCacheSize(int labelMatchesCacheSize) {
+    if (labelMatchesCacheSize <= 0) {
+      throw new IllegalArgumentException("labelMatchesCacheSize must be positive: " + labelMatchesCacheSize);
+    }
+    this.labelMatchesCacheSize = labelMatchesCacheSize;
+    return this;
+  }
+
+  /**
+   * @return the distribution configurations of timers and summaries
+   */
+  public List<DistributionOptions> getDistributions() {
+    return distributions;
+  }
+
+  /**
+   * Set the distribution configurations (histograms, percentiles, SLA buckets) of timers and summaries, per domain or
+   * per metric name. They override the ones of the backend, such as {@link VertxPrometheusOptions#setPublishQuantiles(boolean)}.
+   *
+   * @param distributions the new list of distribution configurations
+   * @return a reference to this, so the API can be used fluently
+   */
+  public MicrometerMetricsOptions setDistributions(List<DistributionOptions> distributions) {
+    this.distributions = new ArrayList<>(distributions);
+    return this;
+  }
+
+  /**
+   * Add a distribution configuration for the timers and summaries of a domain, or for a single metric.
+   *
+   * @param distribution the distribution configuration
+   * @return a reference to this, so the API can be used fluently
+   */
+  public MicrometerMetricsOptions addDistribution(DistributionOptions distribution) {
+    distributions.add(distribution);
+    return this;
+  }
+
   /**
    * Get the Micrometer MeterRegistry to be used by Vert.x, that has been previously set programmatically
    *
@@ -355,4 +524,384 @@ public class MicrometerMetricsOptions extends MetricsOptions {
     this.jvmMetricsEnabled = jvmMetricsEnabled;
     return this;
   }
+
+  /**
+   * @return the maximum number of series per meter, 0 meaning unlimited
+   */
+  public int getMaxSeriesPerFamily() {
+    return maxSeriesPerFamily;
+  }
+
+  /**
+   * Set the maximum number of series (i.e. of distinct label values) per meter. Beyond this limit, new label values
+   * are collapsed into a single series where labels have the value {@code __overflow__}, and the
+   * {@code vertx.series.overflow} counter is incremented. Defaults to {@code 0}, which means unlimited.
+   *
+   * @param maxSeriesPerFamily the maximum number of series per meter
+   * @return a reference to this, so the API can be used fluently
+   * @throws IllegalArgumentException if the limit is negative
+   */
+  public MicrometerMetricsOptions setMaxSeriesPerFamily(int maxSeriesPerFamily) {
+    this.maxSeriesPerFamily = checkMaxSeriesPerFamily(maxSeriesPerFamily);
+    return this;
+  }
+
+  /**
+   * Get the maximum number of series per meter for the given domain.
+   *
+   * @param domain the metrics domain
+   * @return the limit set for this domain if any, otherwise the global one
+   */
+  @GenIgnore
+  public int getMaxSeriesPerFamily(MetricsDomain domain) {
+    return domainMaxSeriesPerFamily.getOrDefault(domain, maxSeriesPerFamily);
+  }
+
+  /**
+   * Set the maximum number of series per meter for a given domain, overriding the global limit.
+   *
+   * @param domain the metrics domain
+   * @param maxSeriesPerFamily the maximum number of series per meter in this domain, 0 meaning unlimited
+   * @return a reference to this, so the API can be used fluently
+   * @throws IllegalArgumentException if the limit is negative
+   */
+  @GenIgnore
+  public MicrometerMetricsOptions setMaxSeriesPerFamily(MetricsDomain domain, int maxSeriesPerFamily) {
+    domainMaxSeriesPerFamily.put(domain, checkMaxSeriesPerFamily(maxSeriesPerFamily));
+    return this;
+  }
+
+  private static int checkMaxSeriesPerFamily(int maxSeriesPerFamily) {
+    if (maxSeriesPerFamily < 0) {
+      throw new IllegalArgumentException("maxSeriesPerFamily must not be negative: " + maxSeriesPerFamily);
+    }
+    return maxSeriesPerFamily;
+  }
+
+  /**
+   * @return the time in milliseconds after which unused series are removed, 0 meaning never
+   */
+  public long getSeriesIdleTimeout() {
+    return seriesIdleTimeout;
+  }
+
+  /**
+   * Set the time in milliseconds after which series that have not been updated are removed from the registry, so that
+   * series for short-lived remote addresses do not pile up. Gauges are only removed when their value is zero.
+   * A series may stay up to twice this time before being removed. A removed series used again is registered again,
+   * its value starting over: counters are then reset. Defaults to {@code 0}, which means never.
+   *
+   * @param seriesIdleTimeout the idle time in milliseconds
+   * @return a reference to this, so the API can be used fluently
+   * @throws IllegalArgumentException if the timeout is negative
+   */
+  public MicrometerMetricsOptions setSeriesIdleTimeout(long seriesIdleTimeout) {
+    if (seriesIdleTimeout < 0) {
+      throw new IllegalArgumentException("seriesIdleTimeout must not be negative: " + seriesIdleTimeout);
+    }
+    this.seriesIdleTimeout = seriesIdleTimeout;
+    return this;
+  }
+
+  /**
+   * @return true if counters, timers and summaries record into per event loop shards
+   */
+  public boolean isMeterShardingEnabled() {
+    return meterShardingEnabled;
+  }
+
+  /**
+   * Whether counters, timers and summaries should record into one shard per event loop thread, merged only when the
+   * meters are read (scrape, snapshot or publication). Event loops then no longer contend on shared meters, at the
+   * expense of memory per series. In this mode, timers and summaries only provide a count and a total: there is no
+   * maximum nor histogram, so those with a distribution configured (see {@link #addDistribution(DistributionOptions)}
+   * and {@link VertxPrometheusOptions#setPublishQuantiles(boolean)}) are not sharded.
+   * Up to {@link io.vertx.core.VertxOptions#DEFAULT_EVENT_LOOP_POOL_SIZE} event loops at a time get their own shards,
+   * others share a single one. Defaults to {@code false}.
+   *
+   * @param meterShardingEnabled true to record into per event loop shards
+   * @return a reference to this, so the API can be used fluently
+   */
+  public MicrometerMetricsOptions setMeterShardingEnabled(boolean meterShardingEnabled) {
+    this.meterShardingEnabled = meterShardingEnabled;
+    return this;
+  }
+
+  /**
+   * @return the domains whose counters, timers and summaries are recorded asynchronously
+   */
+  public Set<MetricsDomain> getAsyncRecordingDomains() {
+    return asyncRecordingDomains;
+  }
+
+  /**
+   * Set the domains whose counters, timers and summaries are recorded asynchronously. Vert.x threads then only put
+   * the recorded values in a buffer, and a background thread applies them to the meters. Meters are consequently
+   * late by up to {@link #setAsyncRecordingMaxDelay(long)}. Gauges are always updated synchronously.
+   * Defaults to none.
+   *
+   * @param asyncRecordingDomains the domains recorded asynchronously
+   * @return a reference to this, so the API can be used fluently
+   */
+  public MicrometerMetricsOptions setAsyncRecordingDomains(Set<MetricsDomain> asyncRecordingDomains) {
+    this.asyncRecordingDomains = asyncRecordingDomains;
+    return this;
+  }
+
+  /**
+   * Record the counters, timers and summaries of this domain asynchronously.
+   *
+   * @param metricsDomain the domain
+   * @return a reference to this, so the API can be used fluently
+   */
+  @GenIgnore
+  public MicrometerMetricsOptions addAsyncRecordingDomain(MetricsDomain metricsDomain) {
+    if (asyncRecordingDomains == null) {
+      asyncRecordingDomains = EnumSet.noneOf(MetricsDomain.class);
+    }
+    asyncRecordingDomains.add(metricsDomain);
+    return this;
+  }
+
+  /**
+   * Is the given domain recorded asynchronously?
+   * @return true if it is recorded asynchronously
+   */
+  @GenIgnore
+  public boolean isAsyncRecordingEnabled(MetricsDomain metricsDomain) {
+    return asyncRecordingDomains != null && asyncRecordingDomains.contains(metricsDomain);
+  }
+
+  /**
+   * @return the capacity of the asynchronous recording buffers
+   */
+  public int getAsyncRecordingBufferSize() {
+    return asyncRecordingBufferSize;
+  }
+
+  /**
+   * Set the capacity of the asynchronous recording buffers, in number of values. There is one buffer per event loop,
+   * and one shared by other threads. Values recorded while a buffer is full are dropped, and counted by the
+   * {@code vertx.recording.dropped} counter. Defaults to {@code 8192}.
+   *
+   * @param asyncRecordingBufferSize the capacity of each buffer, rounded up to a power of two
+   * @return a reference to this, so the API can be used fluently
+   * @throws IllegalArgumentException if the capacity is not between 1 and 2^30
+   */
+  public MicrometerMetricsOptions setAsyncRecordingBufferSize(int asyncRecordingBufferSize) {
+    // Larger capacities could not be rounded up to a power of two
+    if (asyncRecordingBufferSize < 1 || asyncRecordingBufferSize > 1 << 30) {
+      throw new IllegalArgumentException("asyncRecordingBufferSize must be between 1 and 2^30: " + asyncRecordingBufferSize);
+    }
+    this.asyncRecordingBufferSize = asyncRecordingBufferSize;
+    return this;
+  }
+
+  /**
+   * @return the maximum delay in milliseconds before an asynchronously recorded value is applied
+   */
+  public long getAsyncRecordingMaxDelay() {
+    return asyncRecordingMaxDelay;
+  }
+
+  /**
+   * Set the maximum delay in milliseconds before an asynchronously recorded value is applied to its meter, which is
+   * the period of the background thread. Defaults to {@code 100}.
+   *
+   * @param asyncRecordingMaxDelay the maximum delay in milliseconds
+   * @return a reference to this, so the API can be used fluently
+   */
+  public MicrometerMetricsOptions setAsyncRecordingMaxDelay(long asyncRecordingMaxDelay) {
+    this.asyncRecordingMaxDelay = asyncRecordingMaxDelay;
+    return this;
+  }
+
+  /**
+   * @return the rate at which values are recorded into timer and summary distributions
+   */
+  public double getSamplingRate() {
+    return samplingRate;
+  }
+
+  /**
+   * Set the rate at which values are recorded into timer and summary distributions, greater than {@code 0} and up to
+   * {@code 1}. Below {@code 1}, each value is recorded with this probability into the timer or summary, which keeps
+   * its name and provides the percentiles and histograms, so its count and sum become sampled as well. The exact count,
+   * sum and maximum of every value are provided by a meter named after the timer or summary with a {@code .exact}
+   * suffix. Defaults to {@code 1}, which means no sampling.
+   *
+   * @param samplingRate the probability of recording a value into the distribution
+   * @return a reference to this, so the API can be used fluently
+   * @throws IllegalArgumentException if the rate is not greater than 0 and up to 1
+   */
+  public MicrometerMetricsOptions setSamplingRate(double samplingRate) {
+    this.samplingRate = checkSamplingRate(samplingRate);
+    return this;
+  }
+
+  /**
+   * Get the sampling rate of timer and summary distributions for the given domain.
+   *
+   * @param domain the metrics domain
+   * @return the rate set for this domain if any, otherwise the global one
+   */
+  @GenIgnore
+  public double getSamplingRate(MetricsDomain domain) {
+    return domainSamplingRate.getOrDefault(domain, samplingRate);
+  }
+
+  /**
+   * Set the sampling rate of timer and summary distributions for a given domain, overriding the global rate.
+   *
+   * @param domain the metrics domain
+   * @param samplingRate the probability of recording a value into the distribution in this domain
+   * @return a reference to this, so the API can be used fluently
+   * @throws IllegalArgumentException if the rate is not greater than 0 and up to 1
+   */
+  @GenIgnore
+  public MicrometerMetricsOptions setSamplingRate(MetricsDomain domain, double samplingRate) {
+    domainSamplingRate.put(domain, checkSamplingRate(samplingRate));
+    return this;
+  }
+
+  private static double checkSamplingRate(double samplingRate) {
+    // Also rejects NaN
+    if (!(samplingRate > 0 && samplingRate <= 1)) {
+      throw new IllegalArgumentException("samplingRate must be greater than 0 and up to 1: " + samplingRate);
+    }
+    return samplingRate;
+  }
+
+  /**
+   * @return the clock used to time events
+   */
+  public Clock getClock() {
+    return clock;
+  }
+
+  /**
+   * Programmatically set the clock used to time events, such as HTTP requests or event bus messages.
+   * Defaults to Micrometer's system clock, which relies on {@link System#nanoTime()}.
+   *
+   * @param clock the clock to use
+   * @return a reference to this, so the API can be used fluently
+   */
+  public MicrometerMetricsOptions setClock(Clock clock) {
+    this.clock = clock;
+    return this;
+  }
+
+  /**
+   * @return the domains whose events are timed with the coarse clock
+   */
+  public Set<MetricsDomain> getCoarseClockDomains() {
+    return coarseClockDomains;
+  }
+
+  /**
+   * Set the domains whose events are timed with a coarse clock instead of {@link #getClock()}. The coarse clock is
+   * updated by a background thread every {@link #setCoarseClockResolution(long)} milliseconds, so that reading it
+   * costs a memory read, but durations are only precise to this resolution. This is meant for domains where
+   * sub-millisecond accuracy is not needed, such as the event bus or pools. Defaults to none.
+   *
+   * @param coarseClockDomains the domains timed with the coarse clock
+   * @return a reference to this, so the API can be used fluently
+   */
+  public MicrometerMetricsOptions setCoarseClockDomains(Set<MetricsDomain> coarseClockDomains) {
+    this.coarseClockDomains = coarseClockDomains;
+    return this;
+  }
+
+  /**
+   * Time the events of this domain with the coarse clock.
+   *
+   * @param metricsDomain the domain
+   * @return a reference to this, so the API can be used fluently
+   */
+  @GenIgnore
+  public MicrometerMetricsOptions addCoarseClockDomain(MetricsDomain metricsDomain) {
+    if (coarseClockDomains == null) {
+      coarseClockDomains = EnumSet.noneOf(MetricsDomain.class);
+    }
+    coarseClockDomains.add(metricsDomain);
+    return this;
+  }
+
+  /**
+   * Are the events of the given domain timed with the coarse clock?
+   * @return true if they are timed with the coarse clock
+   */
+  @GenIgnore
+  public boolean isCoarseClockEnabled(MetricsDomain metricsDomain) {
+    return coarseClockDomains != null && coarseClockDomains.contains(metricsDomain);
+  }
+
+  /**
+   * @return the update period of the coarse clock, in milliseconds
+   */
+  public long getCoarseClockResolution() {
+    return coarseClockResolution;
+  }
+
+  /**
+   * Set the update period of the coarse clock, in milliseconds. Defaults to {@code 1}.
+   *
+   * @param coarseClockResolution the update period in milliseconds
+   * @return a reference to this, so the API can be used fluently
+   * @throws IllegalArgumentException if the period is not positive
+   */
+  public MicrometerMetricsOptions setCoarseClockResolution(long coarseClockResolution) {
+    if (coarseClockResolution <= 0) {
+      throw new IllegalArgumentException("coarseClockResolution must be positive: " + coarseClockResolution);
+    }
+    this.coarseClockResolution = coarseClockResolution;
+    return this;
+  }
+
+  /**
+   * @return the domains whose timers record into compact histograms
+   */
+  public Set<MetricsDomain> getCompactHistogramDomains() {
+    return compactHistogramDomains;
+  }
+
+  /**
+   * Set the domains whose timers record into compact histograms, with fixed log-linear buckets from 1 &micro;s to about
+   * 2 minutes, instead of the registry timers. They take about a kilobyte per series, but have no maximum and ignore the
+   * registry distribution configuration. Their buckets are only published by the built-in Prometheus backend, as
+   * {@code <name>_histogram_seconds}, from which percentiles can be estimated with {@code histogram_quantile}: other
+   * backends only get the count and total time. In these domains, timers are neither sharded nor sampled.
+   * Defaults to none.
+   *
+   * @param compactHistogramDomains the domains with compact histograms
+   * @return a reference to this, so the API can be used fluently
+   */
+  public MicrometerMetricsOptions setCompactHistogramDomains(Set<MetricsDomain> compactHistogramDomains) {
+    this.compactHistogramDomains = compactHistogramDomains;
+    return this;
+  }
+
+  /**
+   * Record the timers of this domain into compact histograms.
+   *
+   * @param metricsDomain the domain
+   * @return a reference to this, so the API can be used fluently
+   */
+  @GenIgnore
+  public MicrometerMetricsOptions addCompactHistogramDomain(MetricsDomain metricsDomain) {
+    if (compactHistogramDomains == null) {
+      compactHistogramDomains = EnumSet.noneOf(MetricsDomain.class);
+    }
+    compactHistogramDomains.add(metricsDomain);
+    return this;
+  }
+
+  /**
+   * Do the timers of the given domain record into compact histograms?
+   * @return true if they record into compact histograms
+   */
+  @GenIgnore
+  public boolean isCompactHistogramEnabled(MetricsDomain metricsDomain) {
+    return compactHistogramDomains != null && compactHistogramDomains.contains(metricsDomain);
+  }
 }
@@ -48,11 +48,30 @@ public class VertxPrometheusOptions {
    */
   public static final boolean DEFAULT_PUBLISH_QUANTILES = false;
 
+  /**
+   * Default duration for which a rendered scrape is reused = 0 (not reused).
+   */
+  public static final long DEFAULT_SCRAPE_CACHE_DURATION = 0;
+
+  /**
+   * Default timeout of a scrape = 10 seconds, as the default scrape timeout of Prometheus.
+   */
+  public static final long DEFAULT_SCRAPE_TIMEOUT = 10000;
+
+  /**
+   * Default compression of scrapes = true (gzip when accepted by the scraper).
+   */
+  public static final boolean DEFAULT_SCRAPE_COMPRESSION = true;
+
   private boolean enabled;
   private boolean startEmbeddedServer;
   private HttpServerOptions embeddedServerOptions;
   private String embeddedServerEndpoint;
   private boolean publishQuantiles;
+  private long scrapeCacheDuration;
+  private String scrapeWorkerPoolName;
+  private long scrapeTimeout;
+  private boolean scrapeCompression;
 
   /**
    * Default constructor
@@ -62,6 +81,9 @@ public class VertxPrometheusOptions {
     startEmbeddedServer = DEFAULT_START_EMBEDDED_SERVER;
     embeddedServerEndpoint = DEFAULT_EMBEDDED_SERVER_ENDPOINT;
     publishQuantiles = DEFAULT_PUBLISH_QUANTILES;
+    scrapeCacheDuration = DEFAULT_SCRAPE_CACHE_DURATION;
+    scrapeTimeout = DEFAULT_SCRAPE_TIMEOUT;
+    scrapeCompression = DEFAULT_SCRAPE_COMPRESSION;
   }
 
   /**
@@ -77,6 +99,10 @@ public class VertxPrometheusOptions {
       embeddedServerOptions = new HttpServerOptions(other.embeddedServerOptions);
     }
     publishQuantiles = other.publishQuantiles;
+    scrapeCacheDuration = other.scrapeCacheDuration;
+    scrapeWorkerPoolName = other.scrapeWorkerPoolName;
+    scrapeTimeout = other.scrapeTimeout;
+    scrapeCompression = other.scrapeCompression;
   }
 
   /**
@@ -181,4 +207,84 @@ public class VertxPrometheusOptions {
     this.publishQuantiles = publishQuantiles;
     return this;
   }
+
+  /**
+   * @return the duration for which a rendered scrape is reused, in milliseconds
+   */
+  public long getScrapeCacheDuration() {
+    return scrapeCacheDuration;
+  }
+
+  /**
+   * Set the duration for which a rendered scrape is reused, in milliseconds. Scrapes received meanwhile, e.g. from
+   * several Prometheus replicas, get the same output instead of rendering the registry again. Scrapes received while a
+   * rendering is in progress always share it. Defaults to {@code 0}: every scrape renders the registry.
+   *
+   * @param scrapeCacheDuration the cache duration in milliseconds
+   * @return a reference to this, so the API can be used fluently
+   */
+  public VertxPrometheusOptions setScrapeCacheDuration(long scrapeCacheDuration) {
+    this.scrapeCacheDuration = scrapeCacheDuration;
+    return this;
+  }
+
+  /**
+   * @return the name of the worker pool rendering the scrapes, {@code null} for the Vert.x worker pool
+   */
+  public String getScrapeWorkerPoolName() {
+    return scrapeWorkerPoolName;
+  }
+
+  /**
+   * Set the name of a dedicated worker pool rendering the scrapes, so that they neither block an event loop nor compete
+   * with the blocking tasks of the application. Defaults to {@code null}: scrapes are rendered on the Vert.x worker pool.
+   *
+   * @param scrapeWorkerPoolName the worker pool name
+   * @return a reference to this, so the API can be used fluently
+   */
+  public VertxPrometheusOptions setScrapeWorkerPoolName(String scrapeWorkerPoolName) {
+    this.scrapeWorkerPoolName = scrapeWorkerPoolName;
+    return this;
+  }
+
+  /**
+   * @return the scrape timeout, in milliseconds
+   */
+  public long getScrapeTimeout() {
+    return scrapeTimeout;
+  }
+
+  /**
+   * Set the time after which a scrape not rendered yet is answered with a {@code 503} status, in milliseconds. The
+   * rendering goes on, and can be shared by the next scrapes. A streamed scrape whose output is still not read by the
+   * scraper after this time is aborted, and its connection closed. Set {@code 0} to wait as long as needed. Defaults to
+   * {@code 10000}.
+   *
+   * @param scrapeTimeout the scrape timeout in milliseconds
+   * @return a reference to this, so the API can be used fluently
+   */
+  public VertxPrometheusOptions setScrapeTimeout(long scrapeTimeout) {
+    this.scrapeTimeout = scrapeTimeout;
+    return this;
+  }
+
+  /**
+   * @return true if scrapes are compressed when the scraper accepts it
+   */
+  public boolean isScrapeCompression() {
+    return scrapeCompression;
+  }
+
+  /**
+   * Compress the scrapes with gzip when the scraper sends an {@code Accept-Encoding} header allowing it, as Prometheus
+   * does. The output is compressed while it is rendered. With a scrape cache duration, the compressed output is cached
+   * as well. Defaults to {@code true}.
+   *
+   * @param scrapeCompression true to compress the scrapes
+   * @return a reference to this, so the API can be used fluently
+   */
+  public VertxPrometheusOptions setScrapeCompression(boolean scrapeCompression) {
+    this.scrapeCompression = scrapeCompression;
+    return this;
+  }
 }
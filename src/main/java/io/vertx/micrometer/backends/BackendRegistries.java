@@ -16,12 +16,12 @@
  */
 package io.vertx.micrometer.backends;
 
-import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.FunctionCounter;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.config.MeterFilter;
+import io.vertx.micrometer.DistributionOptions;
 import io.vertx.micrometer.Label;
 import io.vertx.micrometer.Match;
-import io.vertx.micrometer.MetricsDomain;
 import io.vertx.micrometer.MicrometerMetricsOptions;
 import io.vertx.micrometer.VertxInfluxDbOptions;
 import io.vertx.micrometer.VertxPrometheusOptions;
@@ -31,8 +31,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.function.Function;
-import java.util.regex.Pattern;
 
 /**
  * {@link BackendRegistries} is responsible for managing registries related to particular micrometer backends (influxdb, prometheus...)
@@ -68,7 +66,8 @@ public final class BackendRegistries {
         // No backend setup, use global registry
         reg = NoopBackendRegistry.INSTANCE;
       }
-      registerMatchers(reg.getMeterRegistry(), options.getLabels(), options.getLabelMatches());
+      registerMatchers(reg.getMeterRegistry(), options.getLabelMatches(), options.getLabelMatchesCacheSize());
+      registerDistributions(reg.getMeterRegistry(), options.getDistributions());
       return reg;
     });
   }
@@ -96,6 +95,16 @@ public final class BackendRegistries {
     return null;
   }
 
+  /**
+   * Get the backend registry of the given name.
+   * May return {@code null} if it hasn't been registered yet or if it has been stopped.
+   * @param registryName the name associated with this registry in Micrometer options
+   * @return the backend registry or {@code null}
+   */
+  public static BackendRegistry getBackendNow(String registryName) {
+    return REGISTRIES.get(registryName);
+  }
+
   /**
    * Stop (unregister) the backend registry of the given name.
    * Any resource started by this backend registry will be released (like running HTTP server)
@@ -108,77 +117,62 @@ public final class BackendRegistries {
     }
   }
 
+  /**
+   * Register a meter filter removing the disabled labels, then the label matching rules.
+   * @param registry the micrometer registry
+   * @param enabledLabels the labels to keep
+   * @param matches the label matching rules
+   * @deprecated the Vert.x metrics drop disabled labels before meters are created, so they no longer need a meter
+   * filter. Use {@link #registerMatchers(MeterRegistry, List)} instead.
+   */
+  @Deprecated
   public static void registerMatchers(MeterRegistry registry, Set<Label> enabledLabels, List<Match> matches) {
     String[] ignored = EnumSet.complementOf(EnumSet.copyOf(enabledLabels)).stream()
       .map(Label::toString)
       .toArray(String[]::new);
     registry.config().meterFilter(MeterFilter.ignoreTags(ignored));
-    matches.forEach(m -> {
-      switch (m.getType()) {
-        case EQUALS:
-          if (m.getAlias() == null) {
-            // Exact match => accept
-            registry.config().meterFilter(MeterFilter.accept(id -> {
-              if (m.getDomain() != null && !id.getName().startsWith(m.getDomain().getPrefix())) {
-                // If domain has been specified and we're not in that domain, ignore rule
-                return true;
-              }
-              String tagValue = id.getTag(m.getLabel());
-              return m.getValue().equals(tagValue);
-            }));
-          } else {
-            // Exact match => alias
-            registry.config().meterFilter(replaceTagValues(
-              m.getDomain(),
-              m.getLabel(),
-              val -> {
-                if (m.getValue().equals(val)) {
-                  return m.getAlias();
-                }
-                return val;
-              }
-            ));
-          }
-          break;
-        case REGEX:
-          Pattern pattern = Pattern.compile(m.getValue());
-          if (m.getAlias() == null) {
-            // Regex match => accept
-            registry.config().meterFilter(MeterFilter.accept(id -> {
-              if (m.getDomain() != null && !id.getName().startsWith(m.getDomain().getPrefix())) {
-                // If domain has been specified and we're not in that domain, ignore rule
-                return true;
-              }
-              String tagValue = id.getTag(m.getLabel());
-              return pattern.matcher(tagValue).matches();
-            }));
-          } else {
-            // Regex match => alias
-            registry.config().meterFilter(replaceTagValues(
-              m.getDomain(),
-              m.getLabel(),
-              val -> {
-                if (pattern.matcher(val).matches()) {
-                  return m.getAlias();
-                }
-                return val;
-              }
-            ));
-          }
-          break;
-      }
-    });
+    registerMatchers(registry, matches);
   }
 
-  private static MeterFilter replaceTagValues(MetricsDomain domain, String tagKey, Function<String, String> replacement) {
-    return new MeterFilter() {
-      @Override
-      public Meter.Id map(Meter.Id id) {
-        if (domain != null && !id.getName().startsWith(domain.getPrefix())) {
-          return id;
-        }
-        return MeterFilter.replaceTagValues(tagKey, replacement).map(id);
-      }
-    };
+  /**
+   * Register the label matching rules, compiled into a single meter filter.
+   * Hits and misses of its regex cache are exposed as {@code vertx.matchers.cacheHits} and {@code vertx.matchers.cacheMisses}.
+   * @param registry the micrometer registry
+   * @param matches the label matching rules
+   */
+  public static void registerMatchers(MeterRegistry registry, List<Match> matches) {
+    registerMatchers(registry, matches, MicrometerMetricsOptions.DEFAULT_LABEL_MATCHES_CACHE_SIZE);
+  }
+
+  /**
+   * Register the label matching rules, compiled into a single meter filter.
+   * Hits and misses of its regex cache are exposed as {@code vertx.matchers.cacheHits} and {@code vertx.matchers.cacheMisses}.
+   * @param registry the micrometer registry
+   * @param matches the label matching rules
+   * @param cacheSize the maximum number of label values whose regex matching outcome is memoized, per label
+   */
+  public static void registerMatchers(MeterRegistry registry, List<Match> matches, int cacheSize) {
+    if (!matches.isEmpty()) {
+      MatchersFilter filter = new MatchersFilter(matches, cacheSize);
+      registry.config().meterFilter(filter);
+      FunctionCounter.builder("vertx.matchers.cacheHits", filter, MatchersFilter::cacheHits)
+        .description("Number of label values resolved from the matchers cache")
+        .register(registry);
+      FunctionCounter.builder("vertx.matchers.cacheMisses", filter, MatchersFilter::cacheMisses)
+        .description("Number of label values evaluated against the regex matchers")
+        .register(registry);
+    }
+  }
+
+  /**
+   * Register the distribution configurations of timers and summaries, as a meter filter.
+   * It must be registered after the backend filters it overrides, and before the meters are created.
+   * @param registry the micrometer registry
+   * @param distributions the distribution configurations
+   */
+  public static void registerDistributions(MeterRegistry registry, List<DistributionOptions> distributions) {
+    if (!distributions.isEmpty()) {
+      registry.config().meterFilter(new DistributionsFilter(distributions));
+    }
   }
 }
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertx.micrometer.backends;
+
+import io.netty.buffer.ByteBuf;
+import io.vertx.core.buffer.Buffer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * An output stream writing into {@link Buffer} chunks of a fixed size, handed to a sink as soon as they are full.
+ * <p>
+ * Chunks are either allocated for each of them, when the sink keeps them, or taken from a {@link ChunkPool}: the sink
+ * then recycles each chunk once it no longer reads it.
+ *
+ * @author Joel Takvorian
+ */
+final class BufferOutputStream extends OutputStream {
+
+  /**
+   * Receives the chunks, in order.
+   */
+  @FunctionalInterface
+  interface Sink {
+    /**
+     * @param chunk the chunk
+     * @param recycle to run once the chunk is no longer read, so that it can be reused
+     */
+    void accept(Buffer chunk, Runnable recycle) throws IOException;
+  }
+
+  private static final Runnable NOOP = () -> {};
+
+  private final int chunkSize;
+  private final ChunkPool pool;
+  private final Sink sink;
+  private ByteBuf pooled;
+  private Buffer chunk;
+
+  BufferOutputStream(int chunkSize, Sink sink) {
+    this.chunkSize = chunkSize;
+    this.pool = null;
+    this.sink = sink;
+    this.chunk = Buffer.buffer(chunkSize);
+  }
+
+  BufferOutputStream(ChunkPool pool, Sink sink) {
+    this.chunkSize = pool.chunkSize();
+    this.pool = pool;
+    this.sink = sink;
+    this.chunk = nextChunk();
+  }
+
+  private Buffer nextChunk() {
+    if (pool == null) {
+      return Buffer.buffer(chunkSize);
+    }
+    pooled = pool.acquire();
+    // Wraps the pooled memory, without copy
+    return Buffer.buffer(pooled);
+  }
+
+  private Runnable recycle() {
+    if (pooled == null) {
+      return NOOP;
+    }
+    ByteBuf released = pooled;
+    return () -> pool.release(released);
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    chunk.appendByte((byte) b);
+    if (chunk.length() >= chunkSize) {
+      emit();
+    }
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    while (len > 0) {
+      int n = Math.min(len, chunkSize - chunk.length());
+      chunk.appendBytes(b, off, n);
+      off += n;
+      len -= n;
+      if (chunk.length() >= chunkSize) {
+        emit();
+      }
+    }
+  }
+
+  private void emit() throws IOException {
+    Buffer full = chunk;
+    Runnable recycle = recycle();
+    chunk = nextChunk();
+    sink.accept(full, recycle);
+  }
+
+  /**
+   * Hand the last, partial chunk to the sink.
+   */
+  @Override
+  public void close() throws IOException {
+    Buffer last = chunk;
+    Runnable recycle = recycle();
+    chunk = Buffer.buffer(0);
+    pooled = null;
+    if (last.length() > 0) {
+      sink.accept(last, recycle);
+    } else {
+      recycle.run();
+    }
+  }
+}
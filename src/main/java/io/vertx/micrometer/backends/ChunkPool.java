@@ -0,0 +1,58 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertx.micrometer.backends;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * A bounded set of reusable chunk buffers. Chunks are taken from the pool, or allocated when it is empty, and given
+ * back once written; chunks given back to a full pool are left to the garbage collector.
+ *
+ * @author Joel Takvorian
+ */
+final class ChunkPool {
+  private final int chunkSize;
+  private final BlockingQueue<ByteBuf> free;
+
+  ChunkPool(int chunkSize, int capacity) {
+    this.chunkSize = chunkSize;
+    this.free = new ArrayBlockingQueue<>(capacity);
+  }
+
+  int chunkSize() {
+    return chunkSize;
+  }
+
+  /**
+   * @return an empty chunk
+   */
+  ByteBuf acquire() {
+    ByteBuf chunk = free.poll();
+    return chunk != null ? chunk.clear() : Unpooled.buffer(chunkSize);
+  }
+
+  /**
+   * Give back a chunk which is no longer read.
+   */
+  void release(ByteBuf chunk) {
+    free.offer(chunk);
+  }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertx.micrometer.backends;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.config.NamingConvention;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import io.prometheus.client.Collector;
+import io.vertx.micrometer.impl.meters.CompactHistogram;
+import io.vertx.micrometer.impl.meters.CompactHistograms;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the buckets of the {@link CompactHistograms} of a Prometheus registry, as a histogram named after the
+ * timer with a {@code .histogram} suffix (e.g. {@code vertx_http_server_responseTime_histogram_seconds}).
+ *
+ * @author Joel Takvorian
+ */
+final class CompactHistogramsCollector extends Collector {
+  private static final String SUFFIX = ".histogram";
+  private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+  private static final String[] BOUNDS = new String[CompactHistogram.BUCKETS + 1];
+
+  static {
+    for (int i = 0; i < CompactHistogram.BUCKETS; i++) {
+      BOUNDS[i] = Collector.doubleToGoString(CompactHistogram.upperBound(i) / NANOS_PER_SECOND);
+    }
+    BOUNDS[CompactHistogram.BUCKETS] = "+Inf";
+  }
+
+  private final PrometheusMeterRegistry registry;
+  private final CompactHistograms histograms;
+
+  CompactHistogramsCollector(PrometheusMeterRegistry registry, CompactHistograms histograms) {
+    this.registry = registry;
+    this.histograms = histograms;
+  }
+
+  @Override
+  public List<MetricFamilySamples> collect() {
+    NamingConvention convention = registry.config().namingConvention();
+    Map<String, List<MetricFamilySamples.Sample>> families = new LinkedHashMap<>();
+    Map<String, String> descriptions = new LinkedHashMap<>();
+    histograms.forEach((id, histogram) -> {
+      String name = convention.name(id.getName() + SUFFIX, Meter.Type.TIMER, null);
+      List<MetricFamilySamples.Sample> samples = families.computeIfAbsent(name, n -> new ArrayList<>());
+      descriptions.putIfAbsent(name, id.getDescription() == null ? " " : id.getDescription());
+      List<String> keys = new ArrayList<>();
+      List<String> values = new ArrayList<>();
+      for (Tag tag : id.getTags()) {
+        keys.add(convention.tagKey(tag.getKey()));
+        values.add(convention.tagValue(tag.getValue()));
+      }
+      List<String> bucketKeys = new ArrayList<>(keys);
+      bucketKeys.add("le");
+      long[] counts = histogram.counts();
+      long cumulative = 0;
+      for (int i = 0; i < counts.length; i++) {
+        cumulative += counts[i];
+        List<String> bucketValues = new ArrayList<>(values);
+        bucketValues.add(BOUNDS[i]);
+        samples.add(new MetricFamilySamples.Sample(name + "_bucket", bucketKeys, bucketValues, cumulative));
+      }
+      samples.add(new MetricFamilySamples.Sample(name + "_count", keys, values, cumulative));
+      samples.add(new MetricFamilySamples.Sample(name + "_sum", keys, values, histogram.totalNanos() / NANOS_PER_SECOND));
+    });
+    List<MetricFamilySamples> result = new ArrayList<>(families.size());
+    families.forEach((name, samples) -> result.add(new MetricFamilySamples(name, Type.HISTOGRAM, descriptions.get(name), samples)));
+    return result;
+  }
+}
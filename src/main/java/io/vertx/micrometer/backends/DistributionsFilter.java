@@ -0,0 +1,94 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertx.micrometer.backends;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.vertx.micrometer.DistributionOptions;
+import io.vertx.micrometer.MetricsDomain;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link MeterFilter} applying the distribution configurations to timers and summaries.
+ * <p>
+ * The configuration of a metric name takes precedence over the one of its domain. It is merged over the configuration
+ * of the previously registered filters, so that it can override the backend defaults (such as Prometheus' published
+ * quantiles).
+ *
+ * @author Joel Takvorian
+ */
+final class DistributionsFilter implements MeterFilter {
+  private final Map<String, DistributionOptions> byName = new HashMap<>();
+  private final Map<MetricsDomain, DistributionOptions> byDomain = new EnumMap<>(MetricsDomain.class);
+
+  DistributionsFilter(List<DistributionOptions> distributions) {
+    for (DistributionOptions distribution : distributions) {
+      if (distribution.getName() != null) {
+        byName.putIfAbsent(distribution.getName(), distribution);
+      } else if (distribution.getDomain() != null) {
+        byDomain.putIfAbsent(distribution.getDomain(), distribution);
+      }
+    }
+  }
+
+  @Override
+  public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+    DistributionOptions distribution = find(id.getName());
+    if (distribution == null) {
+      return config;
+    }
+    boolean timer = id.getType() == Meter.Type.TIMER || id.getType() == Meter.Type.LONG_TASK_TIMER;
+    DistributionStatisticConfig.Builder builder = DistributionStatisticConfig.builder()
+      .percentilesHistogram(distribution.getPercentilesHistogram());
+    if (distribution.getPercentiles() != null) {
+      builder.percentiles(distribution.getPercentiles().stream().mapToDouble(Double::doubleValue).toArray());
+    }
+    if (distribution.getSla() != null) {
+      builder.sla(distribution.getSla().stream().mapToLong(v -> toBaseUnit(v, timer)).toArray());
+    }
+    if (distribution.getMinimumExpectedValue() != null) {
+      builder.minimumExpectedValue(toBaseUnit(distribution.getMinimumExpectedValue(), timer));
+    }
+    if (distribution.getMaximumExpectedValue() != null) {
+      builder.maximumExpectedValue(toBaseUnit(distribution.getMaximumExpectedValue(), timer));
+    }
+    return builder.build().merge(config);
+  }
+
+  private DistributionOptions find(String name) {
+    DistributionOptions distribution = byName.get(name);
+    if (distribution == null) {
+      for (Map.Entry<MetricsDomain, DistributionOptions> entry : byDomain.entrySet()) {
+        if (name.startsWith(entry.getKey().getPrefix())) {
+          return entry.getValue();
+        }
+      }
+    }
+    return distribution;
+  }
+
+  // Timers record nanoseconds, while their configuration is expressed in milliseconds
+  private static long toBaseUnit(double value, boolean timer) {
+    return timer ? (long) (value * TimeUnit.MILLISECONDS.toNanos(1)) : (long) value;
+  }
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertx.micrometer.backends;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.config.MeterFilterReply;
+import io.vertx.micrometer.Match;
+import io.vertx.micrometer.MatchType;
+import io.vertx.micrometer.MetricsDomain;
+import io.vertx.micrometer.MicrometerMetricsOptions;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * A single {@link MeterFilter} evaluating all the label matching rules.
+ * <p>
+ * Rules are compiled per domain and per label: for a given meter, only the rules of its domain (plus the ones without
+ * domain) are considered, and for each of its tags only the rules of that label. Within a label, {@link MatchType#EQUALS}
+ * rules are looked up in a hash table and {@link MatchType#REGEX} rules are tried in declaration order, their outcome
+ * being memoized per label value in a bounded LRU cache.
+ * <ul>
+ *   <li>Rules with an alias rename the value: exact matches are checked first, then the first matching regex wins.</li>
+ *   <li>Rules without alias restrict the label to the matching values: a meter having this label with any other value is denied.</li>
+ * </ul>
+ *
+ * @author Joel Takvorian
+ */
+final class MatchersFilter implements MeterFilter {
+  private final Map<MetricsDomain, Map<String, LabelRules>> domainRules = new EnumMap<>(MetricsDomain.class);
+  private final Map<String, LabelRules> otherRules = new HashMap<>();
+  private final int cacheSize;
+  private final LongAdder cacheHits = new LongAdder();
+  private final LongAdder cacheMisses = new LongAdder();
+
+  MatchersFilter(List<Match> matches) {
+    this(matches, MicrometerMetricsOptions.DEFAULT_LABEL_MATCHES_CACHE_SIZE);
+  }
+
+  MatchersFilter(List<Match> matches, int cacheSize) {
+    this.cacheSize = cacheSize;
+    for (MetricsDomain domain : MetricsDomain.values()) {
+      Map<String, LabelRules> rules = compile(matches, domain);
+      if (!rules.isEmpty()) {
+        domainRules.put(domain, rules);
+      }
+    }
+    otherRules.putAll(compile(matches, null));
+  }
+
+  private Map<String, LabelRules> compile(List<Match> matches, MetricsDomain domain) {
+    Map<String, LabelRules> rules = new HashMap<>();
+    for (Match m : matches) {
+      if (m.getDomain() == null || m.getDomain() == domain) {
+        rules.computeIfAbsent(m.getLabel(), k -> new LabelRules(this)).add(m);
+      }
+    }
+    return rules;
+  }
+
+  long cacheHits() {
+    return cacheHits.sum();
+  }
+
+  long cacheMisses() {
+    return cacheMisses.sum();
+  }
+
+  private Map<String, LabelRules> rulesFor(Meter.Id id) {
+    String name = id.getName();
+    for (Map.Entry<MetricsDomain, Map<String, LabelRules>> entry : domainRules.entrySet()) {
+      if (name.startsWith(entry.getKey().getPrefix())) {
+        return entry.getValue();
+      }
+    }
+    return otherRules;
+  }
+
+  @Override
+  public Meter.Id map(Meter.Id id) {
+    Map<String, LabelRules> rules = rulesFor(id);
+    if (rules.isEmpty()) {
+      return id;
+    }
+    List<Tag> tags = id.getTags();
+    List<Tag> mapped = null;
+    for (int i = 0; i < tags.size(); i++) {
+      Tag tag = tags.get(i);
+      LabelRules labelRules = rules.get(tag.getKey());
+      String alias = labelRules == null ? null : labelRules.alias(tag.getValue());
+      if (alias != null) {
+        if (mapped == null) {
+          mapped = new ArrayList<>(tags);
+        }
+        mapped.set(i, Tag.of(tag.getKey(), alias));
+      }
+    }
+    return mapped == null ? id : id.replaceTags(mapped);
+  }
+
+  @Override
+  public MeterFilterReply accept(Meter.Id id) {
+    Map<String, LabelRules> rules = rulesFor(id);
+    if (rules.isEmpty()) {
+      return MeterFilterReply.NEUTRAL;
+    }
+    for (Tag tag : id.getTagsAsIterable()) {
+      LabelRules labelRules = rules.get(tag.getKey());
+      if (labelRules != null && !labelRules.accepts(tag.getValue())) {
+        return MeterFilterReply.DENY;
+      }
+    }
+    return MeterFilterReply.NEUTRAL;
+  }
+
+  private static final class LabelRules {
+    private final MatchersFilter filter;
+    private final Map<String, String> equalsAliases = new HashMap<>();
+    private final List<Pattern> regexAliasPatterns = new ArrayList<>();
+    private final List<String> regexAliases = new ArrayList<>();
+    private final Set<String> equalsAccepted = new HashSet<>();
+    private final List<Pattern> regexAccepted = new ArrayList<>();
+    private final LruCache<String> aliasCache;
+    private final LruCache<Boolean> acceptCache;
+
+    LabelRules(MatchersFilter filter) {
+      this.filter = filter;
+      aliasCache = new LruCache<>(filter.cacheSize);
+      acceptCache = new LruCache<>(filter.cacheSize);
+    }
+
+    void add(Match m) {
+      if (m.getType() == MatchType.REGEX) {
+        Pattern pattern = Pattern.compile(m.getValue());
+        if (m.getAlias() == null) {
+          regexAccepted.add(pattern);
+        } else {
+          regexAliasPatterns.add(pattern);
+          regexAliases.add(m.getAlias());
+        }
+      } else {
+        if (m.getAlias() == null) {
+          equalsAccepted.add(m.getValue());
+        } else {
+          equalsAliases.putIfAbsent(m.getValue(), m.getAlias());
+        }
+      }
+    }
+
+    /**
+     * @return the alias for this value, or {@code null} if no rule renames it
+     */
+    String alias(String value) {
+      String alias = equalsAliases.get(value);
+      if (alias != null || regexAliasPatterns.isEmpty()) {
+        return alias;
+      }
+      alias = aliasCache.get(value);
+      if (alias != null) {
+        filter.cacheHits.increment();
+      } else {
+        filter.cacheMisses.increment();
+        // Values not renamed are cached as themselves, since null can't be stored
+        alias = value;
+        for (int i = 0; i < regexAliasPatterns.size(); i++) {
+          if (regexAliasPatterns.get(i).matcher(value).matches()) {
+            alias = regexAliases.get(i);
+            break;
+          }
+        }
+        aliasCache.put(value, alias);
+      }
+      return alias.equals(value) ? null : alias;
+    }
+
+    boolean accepts(String value) {
+      if (equalsAccepted.isEmpty() && regexAccepted.isEmpty()) {
+        return true;
+      }
+      if (equalsAccepted.contains(value)) {
+        return true;
+      }
+      if (regexAccepted.isEmpty()) {
+        return false;
+      }
+      Boolean accepted = acceptCache.get(value);
+      if (accepted != null) {
+        filter.cacheHits.increment();
+        return accepted;
+      }
+      filter.cacheMisses.increment();
+      accepted = Boolean.FALSE;
+      for (Pattern pattern : regexAccepted) {
+        if (pattern.matcher(value).matches()) {
+          accepted = Boolean.TRUE;
+          break;
+        }
+      }
+      acceptCache.put(value, accepted);
+      return accepted;
+    }
+  }
+
+  /**
+   * Label values memoized in access order, the least recently used being evicted once full. The filter is only
+   * evaluated when a meter is looked up in the registry, so a lock is cheap enough here.
+   */
+  private static final class LruCache<V> {
+    private final Map<String, V> map;
+
+    LruCache(int maxSize) {
+      map = new LinkedHashMap<String, V>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+          return size() > maxSize;
+        }
+      };
+    }
+
+    synchronized V get(String value) {
+      return map.get(value);
+    }
+
+    synchronized void put(String value, V result) {
+      map.put(value, result);
+    }
+  }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertx.micrometer.backends;
+
+import io.prometheus.client.Collector;
+import io.prometheus.client.Collector.MetricFamilySamples;
+import io.prometheus.client.Collector.MetricFamilySamples.Sample;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes metric families in the OpenMetrics text format.
+ * <p>
+ * Counter families are declared without their {@code _total} suffix. Gauge and untyped families holding samples of
+ * several names (e.g. the active count and duration of long task timers) are split into one family per sample name,
+ * since OpenMetrics requires the samples of these types to be named after their family.
+ *
+ * @author Joel Takvorian
+ */
+final class OpenMetricsFormat {
+  static final String CONTENT_TYPE = "application/openmetrics-text; version=1.0.0; charset=utf-8";
+
+  private static final String TOTAL = "_total";
+
+  private OpenMetricsFormat() {
+  }
+
+  static void write(Writer writer, Enumeration<MetricFamilySamples> families) throws IOException {
+    while (families.hasMoreElements()) {
+      MetricFamilySamples family = families.nextElement();
+      switch (family.type) {
+        case COUNTER:
+          writeCounter(writer, family);
+          break;
+        case GAUGE:
+        case UNTYPED:
+          writeByName(writer, family);
+          break;
+        default:
+          writeMetadata(writer, family.name, family.type, family.help);
+          for (Sample sample : family.samples) {
+            writeSample(writer, sample.name, sample);
+          }
+      }
+    }
+    writer.write("# EOF\n");
+  }
+
+  private static void writeCounter(Writer writer, MetricFamilySamples family) throws IOException {
+    String name = family.name.endsWith(TOTAL) ? family.name.substring(0, family.name.length() - TOTAL.length()) : family.name;
+    writeMetadata(writer, name, family.type, family.help);
+    for (Sample sample : family.samples) {
+      writeSample(writer, sample.name.equals(name) ? name + TOTAL : sample.name, sample);
+    }
+  }
+
+  private static void writeByName(Writer writer, MetricFamilySamples family) throws IOException {
+    Map<String, List<Sample>> byName = new LinkedHashMap<>();
+    for (Sample sample : family.samples) {
+      byName.computeIfAbsent(sample.name, n -> new ArrayList<>()).add(sample);
+    }
+    if (byName.isEmpty()) {
+      writeMetadata(writer, family.name, family.type, family.help);
+      return;
+    }
+    for (Map.Entry<String, List<Sample>> entry : byName.entrySet()) {
+      writeMetadata(writer, entry.getKey(), family.type, family.help);
+      for (Sample sample : entry.getValue()) {
+        writeSample(writer, entry.getKey(), sample);
+      }
+    }
+  }
+
+  private static void writeMetadata(Writer writer, String name, Collector.Type type, String help) throws IOException {
+    writer.write("# TYPE ");
+    writer.write(name);
+    writer.write(' ');
+    writer.write(typeName(type));
+    writer.write('\n');
+    if (help != null && !help.trim().isEmpty()) {
+      writer.write("# HELP ");
+      writer.write(name);
+      writer.write(' ');
+      writeEscaped(writer, help);
+      writer.write('\n');
+    }
+  }
+
+  private static void writeSample(Writer writer, String name, Sample sample) throws IOException {
+    writer.write(name);
+    if (!sample.labelNames.isEmpty()) {
+      writer.write('{');
+      for (int i = 0; i < sample.labelNames.size(); i++) {
+        if (i > 0) {
+          writer.write(',');
+        }
+        writer.write(sample.labelNames.get(i));
+        writer.write("=\"");
+        writeEscaped(writer, sample.labelValues.get(i));
+        writer.write('"');
+      }
+      writer.write('}');
+    }
+    writer.write(' ');
+    writer.write(Collector.doubleToGoString(sample.value));
+    writer.write('\n');
+  }
+
+  private static void writeEscaped(Writer writer, String s) throws IOException {
+    for (int i = 0; i < s.length(); i++) {
+      char c = s.charAt(i);
+      switch (c) {
+        case '\\':
+          writer.write("\\\\");
+          break;
+        case '"':
+          writer.write("\\\"");
+          break;
+        case '\n':
+          writer.write("\\n");
+          break;
+        default:
+          writer.write(c);
+      }
+    }
+  }
+
+  private static String typeName(Collector.Type type) {
+    switch (type) {
+      case COUNTER:
+        return "counter";
+      case GAUGE:
+        return "gauge";
+      case SUMMARY:
+        return "summary";
+      case HISTOGRAM:
+        return "histogram";
+      default:
+        return "unknown";
+    }
+  }
+}
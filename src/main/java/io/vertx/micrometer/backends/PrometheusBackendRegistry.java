@@ -22,14 +22,15 @@ import io.micrometer.core.instrument.config.MeterFilter;
 import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
 import io.micrometer.prometheus.PrometheusConfig;
 import io.micrometer.prometheus.PrometheusMeterRegistry;
-import io.prometheus.client.exporter.common.TextFormat;
 import io.vertx.core.Vertx;
-import io.vertx.core.http.HttpHeaders;
 import io.vertx.core.http.HttpServerOptions;
 import io.vertx.core.http.HttpServerRequest;
 import io.vertx.core.impl.logging.Logger;
 import io.vertx.core.impl.logging.LoggerFactory;
 import io.vertx.micrometer.VertxPrometheusOptions;
+import io.vertx.micrometer.impl.meters.CompactHistograms;
+
+import java.util.Collections;
 
 /**
  * @author Joel Takvorian
@@ -39,6 +40,8 @@ public final class PrometheusBackendRegistry implements BackendRegistry {
 
   private final PrometheusMeterRegistry registry;
   private final VertxPrometheusOptions options;
+  private final PrometheusScraper scraper;
+  private final CompactHistograms compactHistograms = new CompactHistograms();
   private Vertx vertx;
 
   public PrometheusBackendRegistry(VertxPrometheusOptions options) {
@@ -56,6 +59,10 @@ public final class PrometheusBackendRegistry implements BackendRegistry {
           }
         });
     }
+    CompactHistogramsCollector compactHistogramsCollector = new CompactHistogramsCollector(registry, compactHistograms);
+    compactHistogramsCollector.register(registry.getPrometheusRegistry());
+    // Its families are created along with the compact timers: they cannot be selected by name
+    scraper = new PrometheusScraper(registry, options, Collections.singletonList(compactHistogramsCollector));
   }
 
   @Override
@@ -63,6 +70,20 @@ public final class PrometheusBackendRegistry implements BackendRegistry {
     return registry;
   }
 
+  /**
+   * @return the compact histograms of this registry, whose buckets are published along with its meters
+   */
+  public CompactHistograms getCompactHistograms() {
+    return compactHistograms;
+  }
+
+  /**
+   * @return the scraper of this registry, configured with the backend options
+   */
+  public PrometheusScraper getScraper() {
+    return scraper;
+  }
+
   @Override
   public void init() {
     if (options.isStartEmbeddedServer()) {
@@ -81,9 +102,7 @@ public final class PrometheusBackendRegistry implements BackendRegistry {
 
   private void handleRequest(HttpServerRequest request) {
     if (options.getEmbeddedServerEndpoint().equals(request.path())) {
-      request.response()
-        .putHeader(HttpHeaders.CONTENT_TYPE, TextFormat.CONTENT_TYPE_004)
-        .end(registry.scrape());
+      scraper.handle(request);
     } else {
       request.response().setStatusCode(404).end();
     }
@@ -91,6 +110,7 @@ public final class PrometheusBackendRegistry implements BackendRegistry {
 
   @Override
   public void close() {
+    scraper.close();
     if (this.vertx != null) {
       vertx.close();
     }
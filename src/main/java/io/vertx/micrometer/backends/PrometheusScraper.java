@@ -0,0 +1,578 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertx.micrometer.backends;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import io.prometheus.client.Collector;
+import io.prometheus.client.CollectorRegistry;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import io.vertx.core.MultiMap;
+import io.vertx.core.Vertx;
+import io.vertx.core.WorkerExecutor;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.core.impl.logging.Logger;
+import io.vertx.core.impl.logging.LoggerFactory;
+import io.vertx.micrometer.VertxPrometheusOptions;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Answers the scrapes of a Prometheus registry.
+ * <p>
+ * The registry is rendered on a worker thread, so that a large registry does not block the event loop of the scrape
+ * request. The output is written directly into {@link Buffer} chunks:
+ * <ul>
+ *   <li>By default, chunks are sent with chunked transfer encoding as soon as they are full, the rendering waiting
+ *   while the response write queue is full. The memory used by a scrape is then bounded, whatever the registry size,
+ *   and the chunks are reused once written. A scrape still not read by the scraper after the scrape timeout is aborted
+ *   and its connection closed, giving the worker thread back.</li>
+ *   <li>When a cache duration is set, the chunks are kept and sent to all the scrapes received during this duration.
+ *   Scrapes received while the registry is being rendered wait for this rendering instead of starting another one.</li>
+ * </ul>
+ * The output format is negotiated with the {@code Accept} header of the scraper, see {@link ScrapeFormat}.
+ * <p>
+ * Scrapes can select the families to render with query parameters, see {@link ScrapeFilter}. Such scrapes are neither
+ * cached nor shared.
+ * <p>
+ * The output is compressed with gzip when the scraper accepts it, unless disabled in the options. Cached outputs are
+ * compressed once, on the first scrape asking for it. Each format has its own cache.
+ * <p>
+ * Rendering times are measured by the {@code vertx.prometheus.scrapeDuration} timer. For streamed scrapes, the time spent
+ * waiting for the scraper to read the previous chunks is not included.
+ *
+ * @author Joel Takvorian
+ */
+public final class PrometheusScraper {
+  private static final Logger LOGGER = LoggerFactory.getLogger(PrometheusScraper.class);
+  private static final int CHUNK_SIZE = 64 * 1024;
+  // A few chunks for each concurrent streamed scrape: one being filled, the others in the response write queue
+  private static final int POOLED_CHUNKS = 16;
+  private static final String GZIP = "gzip";
+
+  private final PrometheusMeterRegistry registry;
+  private final long cacheDuration;
+  private final String workerPoolName;
+  private final long timeout;
+  private final boolean compression;
+  private final Timer scrapeDuration;
+  private final Map<ScrapeFormat, Cache> caches = new EnumMap<>(ScrapeFormat.class);
+  private final ChunkPool chunkPool = new ChunkPool(CHUNK_SIZE, POOLED_CHUNKS);
+  private final List<Collector> unindexed;
+  private WorkerExecutor workerExecutor;
+
+  public PrometheusScraper(PrometheusMeterRegistry registry, VertxPrometheusOptions options) {
+    this(registry, options, Collections.emptyList());
+  }
+
+  /**
+   * @param unindexed collectors of the registry whose families are not known when they are registered
+   */
+  PrometheusScraper(PrometheusMeterRegistry registry, VertxPrometheusOptions options, List<Collector> unindexed) {
+    this.registry = registry;
+    this.unindexed = unindexed;
+    this.cacheDuration = TimeUnit.MILLISECONDS.toNanos(options.getScrapeCacheDuration());
+    this.workerPoolName = options.getScrapeWorkerPoolName();
+    this.timeout = options.getScrapeTimeout();
+    this.compression = options.isScrapeCompression();
+    this.scrapeDuration = Timer.builder("vertx.prometheus.scrapeDuration")
+      .description("Time spent rendering the Prometheus registry")
+      .register(registry);
+    for (ScrapeFormat format : ScrapeFormat.values()) {
+      caches.put(format, new Cache());
+    }
+  }
+
+  /**
+   * @return the scraped registry
+   */
+  public PrometheusMeterRegistry getRegistry() {
+    return registry;
+  }
+
+  /**
+   * Answer a scrape request with the rendered registry. The response is written on the context of the caller, or
+   * rendered on the calling thread without context.
+   *
+   * @param request the scrape request
+   */
+  public void handle(HttpServerRequest request) {
+    ScrapeFilter filter;
+    try {
+      filter = ScrapeFilter.of(request.params());
+    } catch (IllegalArgumentException e) {
+      request.response().setStatusCode(400).end(e.getMessage());
+      return;
+    }
+    Context context = Vertx.currentContext();
+    ScrapeFormat format = ScrapeFormat.negotiate(request.headers().get(HttpHeaders.ACCEPT));
+    boolean gzip = compression && acceptsGzip(request.headers().get(HttpHeaders.ACCEPT_ENCODING));
+    if (context == null || (cacheDuration > 0 && filter == null)) {
+      serve(request, context, format, gzip, filter);
+    } else {
+      stream(request, context, format, gzip, filter);
+    }
+  }
+
+  /**
+   * @return true if the {@code Accept-Encoding} header allows gzip, i.e. lists it, or {@code *}, with a non-zero quality
+   */
+  static boolean acceptsGzip(String acceptEncoding) {
+    if (acceptEncoding == null) {
+      return false;
+    }
+    for (String coding : acceptEncoding.split(",")) {
+      String[] params = coding.split(";");
+      String name = params[0].trim().toLowerCase(Locale.ROOT);
+      if (!name.equals(GZIP) && !name.equals("*")) {
+        continue;
+      }
+      boolean accepted = true;
+      for (int i = 1; i < params.length; i++) {
+        String param = params[i].trim();
+        if (param.startsWith("q=")) {
+          try {
+            accepted = Double.parseDouble(param.substring(2)) > 0;
+          } catch (NumberFormatException e) {
+            accepted = false;
+          }
+        }
+      }
+      if (accepted) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void headers(HttpServerResponse response, ScrapeFormat format, boolean gzip) {
+    MultiMap headers = response.headers();
+    headers.set(HttpHeaders.CONTENT_TYPE, format.contentType());
+    headers.set(HttpHeaders.VARY, compression ? "Accept, Accept-Encoding" : "Accept");
+    if (gzip) {
+      headers.set(HttpHeaders.CONTENT_ENCODING, GZIP);
+    }
+  }
+
+  private void stream(HttpServerRequest request, Context context, ScrapeFormat format, boolean gzip, ScrapeFilter filter) {
+    HttpServerResponse response = request.response();
+    long deadline = timeout > 0 ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout) : -1;
+    ResponseSink sink = new ResponseSink(response, context, () -> headers(response, format, gzip), deadline);
+    long timerId = startTimeout(context, () -> {
+      if (!sink.started) {
+        sink.abort();
+        response.setStatusCode(503).end();
+      }
+    });
+    response.closeHandler(v -> sink.abort());
+    executeBlocking(context, () -> {
+      OutputStream chunks = new BufferOutputStream(chunkPool, sink);
+      CompressingStream zip = gzip ? new CompressingStream(chunks) : null;
+      try {
+        OutputStream out = zip != null ? zip : chunks;
+        write(out, format, filter, sink);
+        // Finishes the gzip stream and sends the last chunk: not reached once aborted
+        out.close();
+      } finally {
+        if (zip != null) {
+          zip.release();
+        }
+      }
+    }, ar -> {
+      cancelTimeout(context, timerId);
+      if (response.ended() || sink.aborted) {
+        return;
+      }
+      if (ar.succeeded()) {
+        if (!sink.started) {
+          // Nothing written: the registry is empty
+          headers(response, format, gzip);
+        }
+        response.end();
+      } else {
+        LOGGER.error("Failed to render the Prometheus registry", ar.cause());
+        if (sink.started) {
+          // Status already sent: make the failure visible to the scraper
+          request.connection().close();
+        } else {
+          response.setStatusCode(500).end();
+        }
+      }
+    });
+  }
+
+  private void serve(HttpServerRequest request, Context context, ScrapeFormat format, boolean gzip, ScrapeFilter filter) {
+    CompletableFuture<List<Buffer>> rendering = filter == null ? render(format, context) : render(format, filter);
+    if (gzip) {
+      ScrapeFormat cached = filter == null ? format : null;
+      rendering = rendering.thenCompose(chunks -> compress(chunks, cached, context));
+    }
+    long timerId = rendering.isDone() ? -1 : startTimeout(context, () -> {
+      if (!request.response().ended()) {
+        request.response().setStatusCode(503).end();
+      }
+    });
+    rendering.whenComplete((chunks, err) -> {
+      if (context == Vertx.currentContext()) {
+        respond(request, format, gzip, chunks, err, context, timerId);
+      } else {
+        context.runOnContext(v -> respond(request, format, gzip, chunks, err, context, timerId));
+      }
+    });
+  }
+
+  private long startTimeout(Context context, Runnable onTimeout) {
+    if (timeout <= 0) {
+      return -1;
+    }
+    return context.owner().setTimer(timeout, id -> {
+      LOGGER.warn("Prometheus scrape not rendered after " + timeout + " ms");
+      onTimeout.run();
+    });
+  }
+
+  private static void cancelTimeout(Context context, long timerId) {
+    if (timerId >= 0) {
+      context.owner().cancelTimer(timerId);
+    }
+  }
+
+  private void respond(HttpServerRequest request, ScrapeFormat format, boolean gzip, List<Buffer> chunks, Throwable err, Context context, long timerId) {
+    cancelTimeout(context, timerId);
+    HttpServerResponse response = request.response();
+    if (response.ended()) {
+      return;
+    }
+    if (err != null) {
+      LOGGER.error("Failed to render the Prometheus registry", err);
+      response.setStatusCode(500).end();
+      return;
+    }
+    long length = 0;
+    for (Buffer chunk : chunks) {
+      length += chunk.length();
+    }
+    headers(response, format, gzip);
+    response.putHeader(HttpHeaders.CONTENT_LENGTH, String.valueOf(length));
+    chunks.forEach(response::write);
+    response.end();
+  }
+
+  /**
+   * Render the registry on a worker of the context, or on the calling thread without context.
+   *
+   * @return the rendered registry, shared with the concurrent scrapes
+   */
+  CompletableFuture<List<Buffer>> render(ScrapeFormat format, Context context) {
+    Cache cache = caches.get(format);
+    CompletableFuture<List<Buffer>> rendering;
+    synchronized (this) {
+      if (cache.current != null && (!cache.current.isDone() || System.nanoTime() - cache.renderedAt < cacheDuration)) {
+        return cache.current;
+      }
+      rendering = new CompletableFuture<>();
+      cache.current = rendering;
+      cache.compressed = null;
+      cache.compressedSource = null;
+    }
+    if (context == null) {
+      render(format, cache, rendering);
+    } else {
+      executeBlocking(context, () -> render(format, cache, rendering), ar -> {});
+    }
+    return rendering;
+  }
+
+  private void render(ScrapeFormat format, Cache cache, CompletableFuture<List<Buffer>> rendering) {
+    List<Buffer> chunks = new ArrayList<>();
+    try (OutputStream out = new BufferOutputStream(CHUNK_SIZE, (chunk, recycle) -> chunks.add(chunk))) {
+      write(out, format, null);
+    } catch (Throwable t) {
+      synchronized (this) {
+        cache.current = null;
+      }
+      rendering.completeExceptionally(t);
+      return;
+    }
+    synchronized (this) {
+      cache.renderedAt = System.nanoTime();
+      if (cacheDuration <= 0) {
+        // Not kept once delivered: a large output would be retained until the next scrape
+        cache.current = null;
+      }
+    }
+    rendering.complete(chunks);
+  }
+
+  /**
+   * Render the selected families on the calling thread, without sharing the rendering.
+   */
+  private CompletableFuture<List<Buffer>> render(ScrapeFormat format, ScrapeFilter filter) {
+    CompletableFuture<List<Buffer>> rendering = new CompletableFuture<>();
+    List<Buffer> chunks = new ArrayList<>();
+    try (OutputStream out = new BufferOutputStream(CHUNK_SIZE, (chunk, recycle) -> chunks.add(chunk))) {
+      write(out, format, filter);
+    } catch (Throwable t) {
+      rendering.completeExceptionally(t);
+      return rendering;
+    }
+    rendering.complete(chunks);
+    return rendering;
+  }
+
+  /**
+   * Compress a rendering on a worker of the context, or on the calling thread without context. When the rendering is
+   * the cached one of a format, the compressed chunks are cached with it.
+   *
+   * @param format the format of the cached rendering, {@code null} for a rendering not shared
+   */
+  CompletableFuture<List<Buffer>> compress(List<Buffer> chunks, ScrapeFormat format, Context context) {
+    Cache cache = format == null ? null : caches.get(format);
+    CompletableFuture<List<Buffer>> compressing;
+    synchronized (this) {
+      if (cache != null && cache.compressedSource == chunks) {
+        return cache.compressed;
+      }
+      compressing = new CompletableFuture<>();
+      if (cache != null && cacheDuration > 0) {
+        cache.compressed = compressing;
+        cache.compressedSource = chunks;
+      }
+    }
+    if (context == null) {
+      compress(chunks, cache, compressing);
+    } else {
+      executeBlocking(context, () -> compress(chunks, cache, compressing), ar -> {});
+    }
+    return compressing;
+  }
+
+  private void compress(List<Buffer> chunks, Cache cache, CompletableFuture<List<Buffer>> compressing) {
+    List<Buffer> compressedChunks = new ArrayList<>();
+    try (OutputStream out = new GZIPOutputStream(new BufferOutputStream(CHUNK_SIZE, (chunk, recycle) -> compressedChunks.add(chunk)), CHUNK_SIZE)) {
+      for (Buffer chunk : chunks) {
+        out.write(chunk.getBytes());
+      }
+    } catch (Throwable t) {
+      synchronized (this) {
+        if (cache != null && cache.compressed == compressing) {
+          cache.compressed = null;
+          cache.compressedSource = null;
+        }
+      }
+      compressing.completeExceptionally(t);
+      return;
+    }
+    compressing.complete(compressedChunks);
+  }
+
+  private void write(OutputStream out, ScrapeFormat format, ScrapeFilter filter) throws IOException {
+    write(out, format, filter, null);
+  }
+
+  /**
+   * @param sink the sink of a streamed scrape, {@code null} otherwise
+   */
+  private void write(OutputStream out, ScrapeFormat format, ScrapeFilter filter, ResponseSink sink) throws IOException {
+    long start = System.nanoTime();
+    CollectorRegistry collectorRegistry = registry.getPrometheusRegistry();
+    format.write(out, filter == null ? collectorRegistry.metricFamilySamples() : filter.filter(registry, unindexed));
+    // Slow scrapers must not show up as slow renderings
+    long waited = sink == null ? 0 : sink.waitedNanos;
+    scrapeDuration.record(System.nanoTime() - start - waited, TimeUnit.NANOSECONDS);
+  }
+
+  @FunctionalInterface
+  private interface BlockingTask {
+    void run() throws Exception;
+  }
+
+  private void executeBlocking(Context context, BlockingTask task, Handler<AsyncResult<Void>> resultHandler) {
+    if (workerPoolName != null) {
+      workerExecutor(context.owner()).<Void>executeBlocking(f -> {
+        try {
+          task.run();
+          f.complete();
+        } catch (Exception e) {
+          f.fail(e);
+        }
+      }, false, resultHandler);
+    } else {
+      context.owner().<Void>executeBlocking(f -> {
+        try {
+          task.run();
+          f.complete();
+        } catch (Exception e) {
+          f.fail(e);
+        }
+      }, false, resultHandler);
+    }
+  }
+
+  private synchronized WorkerExecutor workerExecutor(Vertx vertx) {
+    if (workerExecutor == null) {
+      workerExecutor = vertx.createSharedWorkerExecutor(workerPoolName);
+    }
+    return workerExecutor;
+  }
+
+  /**
+   * Release the worker pool, if any.
+   */
+  public synchronized void close() {
+    if (workerExecutor != null) {
+      workerExecutor.close();
+      workerExecutor = null;
+    }
+  }
+
+  /**
+   * The rendering of a format in progress, or the last one while it can be reused, and its compression. Guarded by the
+   * scraper.
+   */
+  private static final class Cache {
+    private CompletableFuture<List<Buffer>> current;
+    private long renderedAt;
+    private CompletableFuture<List<Buffer>> compressed;
+    private List<Buffer> compressedSource;
+  }
+
+  /**
+   * Writes the chunks to the response from its context, one at a time: the rendering thread waits until the previous
+   * chunk is written and the response write queue is not full, up to the deadline of the scrape. Chunks are recycled
+   * once Netty has written them.
+   */
+  private static final class ResponseSink implements BufferOutputStream.Sink {
+    private final HttpServerResponse response;
+    private final Context context;
+    private final Runnable headers;
+    // System.nanoTime() after which the scraper is deemed gone, -1 to wait as long as needed
+    private final long deadline;
+    private final Semaphore writable = new Semaphore(1);
+    // Only accessed from the context
+    private boolean started;
+    private volatile boolean aborted;
+    // Only accessed from the rendering thread
+    private long waitedNanos;
+
+    private ResponseSink(HttpServerResponse response, Context context, Runnable headers, long deadline) {
+      this.response = response;
+      this.context = context;
+      this.headers = headers;
+      this.deadline = deadline;
+    }
+
+    @Override
+    public void accept(Buffer chunk, Runnable recycle) throws IOException {
+      if (aborted) {
+        recycle.run();
+        throw new IOException("Scrape aborted");
+      }
+      long start = System.nanoTime();
+      boolean acquired;
+      try {
+        if (deadline < 0) {
+          writable.acquire();
+          acquired = true;
+        } else {
+          acquired = writable.tryAcquire(deadline - start, TimeUnit.NANOSECONDS);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        recycle.run();
+        throw new IOException("Interrupted scrape", e);
+      } finally {
+        waitedNanos += System.nanoTime() - start;
+      }
+      if (!acquired) {
+        // The scraper stopped reading: do not hold the worker thread until the connection dies
+        LOGGER.warn("Prometheus scrape not read by the scraper in time, closing the connection");
+        abort();
+        context.runOnContext(v -> response.close());
+        recycle.run();
+        throw new IOException("Scrape not read in time");
+      }
+      if (aborted) {
+        // Leave the permit released by abort() to any later call
+        writable.release();
+        recycle.run();
+        throw new IOException("Scrape aborted");
+      }
+      context.runOnContext(v -> write(chunk, recycle));
+    }
+
+    private void write(Buffer chunk, Runnable recycle) {
+      if (aborted || response.ended()) {
+        writable.release();
+        recycle.run();
+        return;
+      }
+      if (!started) {
+        started = true;
+        response.setChunked(true);
+        headers.run();
+      }
+      // Completed once Netty no longer reads the chunk, whether written or failed
+      response.write(chunk, ar -> recycle.run());
+      if (response.writeQueueFull()) {
+        response.drainHandler(v -> {
+          response.drainHandler(null);
+          writable.release();
+        });
+      } else {
+        writable.release();
+      }
+    }
+
+    private void abort() {
+      aborted = true;
+      // Unblock the rendering thread, which then stops: once aborted, accept() never blocks again
+      writable.release();
+    }
+  }
+
+  /**
+   * A gzip stream whose native resources can be released without finishing it, e.g. once the scrape is aborted.
+   */
+  private static final class CompressingStream extends GZIPOutputStream {
+
+    private CompressingStream(OutputStream out) throws IOException {
+      super(out, CHUNK_SIZE);
+    }
+
+    // Also called after close(), ending the deflater twice is harmless
+    private void release() {
+      def.end();
+    }
+  }
+}
@@ -0,0 +1,301 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertx.micrometer.backends;
+
+import io.prometheus.client.Collector;
+import io.prometheus.client.Collector.MetricFamilySamples;
+import io.prometheus.client.Collector.MetricFamilySamples.Sample;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes metric families in the Prometheus protobuf format: each family is a {@code io.prometheus.client.MetricFamily}
+ * message (see {@code metrics.proto} of the Prometheus client model), preceded by its length as a varint.
+ * <p>
+ * Messages are encoded by hand, which avoids a dependency on the protobuf runtime for the few messages involved.
+ * Summary and histogram samples are grouped into one metric per label set, the {@code +Inf} bucket being implied by the
+ * sample count. Other samples not named after their family are written in a family of their own.
+ *
+ * @author Joel Takvorian
+ */
+final class ProtobufFormat {
+  static final String CONTENT_TYPE = "application/vnd.google.protobuf; proto=io.prometheus.client.MetricFamily; encoding=delimited";
+
+  // MetricFamily
+  private static final int FAMILY_NAME = 1;
+  private static final int FAMILY_HELP = 2;
+  private static final int FAMILY_TYPE = 3;
+  private static final int FAMILY_METRIC = 4;
+  // MetricType
+  private static final int TYPE_COUNTER = 0;
+  private static final int TYPE_GAUGE = 1;
+  private static final int TYPE_SUMMARY = 2;
+  private static final int TYPE_UNTYPED = 3;
+  private static final int TYPE_HISTOGRAM = 4;
+  // Metric
+  private static final int METRIC_LABEL = 1;
+  private static final int METRIC_GAUGE = 2;
+  private static final int METRIC_COUNTER = 3;
+  private static final int METRIC_SUMMARY = 4;
+  private static final int METRIC_UNTYPED = 5;
+  private static final int METRIC_HISTOGRAM = 7;
+  // LabelPair
+  private static final int LABEL_NAME = 1;
+  private static final int LABEL_VALUE = 2;
+  // Gauge, Counter and Untyped
+  private static final int VALUE = 1;
+  // Summary and Histogram
+  private static final int SAMPLE_COUNT = 1;
+  private static final int SAMPLE_SUM = 2;
+  private static final int QUANTILES_OR_BUCKETS = 3;
+  // Quantile
+  private static final int QUANTILE = 1;
+  private static final int QUANTILE_VALUE = 2;
+  // Bucket
+  private static final int BUCKET_CUMULATIVE_COUNT = 1;
+  private static final int BUCKET_UPPER_BOUND = 2;
+
+  private ProtobufFormat() {
+  }
+
+  static void write(OutputStream out, Enumeration<MetricFamilySamples> families) throws IOException {
+    Message family = new Message();
+    Message header = new Message();
+    while (families.hasMoreElements()) {
+      MetricFamilySamples samples = families.nextElement();
+      switch (samples.type) {
+        case SUMMARY:
+        case HISTOGRAM:
+          List<Sample> others = new ArrayList<>();
+          encodeDistribution(family, samples, others);
+          writeDelimited(out, header, family);
+          for (Map.Entry<String, List<Sample>> entry : byName(others).entrySet()) {
+            encodeSimple(family, entry.getKey(), samples.help, Collector.Type.UNTYPED, entry.getValue());
+            writeDelimited(out, header, family);
+          }
+          break;
+        default:
+          Map<String, List<Sample>> named = byName(samples.samples);
+          if (named.isEmpty()) {
+            named.put(samples.name, samples.samples);
+          }
+          for (Map.Entry<String, List<Sample>> entry : named.entrySet()) {
+            encodeSimple(family, entry.getKey(), samples.help, samples.type, entry.getValue());
+            writeDelimited(out, header, family);
+          }
+      }
+    }
+  }
+
+  private static Map<String, List<Sample>> byName(List<Sample> samples) {
+    Map<String, List<Sample>> byName = new LinkedHashMap<>();
+    for (Sample sample : samples) {
+      byName.computeIfAbsent(sample.name, n -> new ArrayList<>()).add(sample);
+    }
+    return byName;
+  }
+
+  private static void writeDelimited(OutputStream out, Message header, Message family) throws IOException {
+    header.reset();
+    header.varint(family.size());
+    header.writeTo(out);
+    family.writeTo(out);
+  }
+
+  private static void encodeSimple(Message family, String name, String help, Collector.Type type, List<Sample> samples) {
+    family.reset();
+    family.string(FAMILY_NAME, name);
+    family.string(FAMILY_HELP, help);
+    int metricType;
+    int valueField;
+    switch (type) {
+      case COUNTER:
+        metricType = TYPE_COUNTER;
+        valueField = METRIC_COUNTER;
+        break;
+      case GAUGE:
+        metricType = TYPE_GAUGE;
+        valueField = METRIC_GAUGE;
+        break;
+      default:
+        metricType = TYPE_UNTYPED;
+        valueField = METRIC_UNTYPED;
+    }
+    family.uint64(FAMILY_TYPE, metricType);
+    Message metric = new Message();
+    Message value = new Message();
+    for (Sample sample : samples) {
+      metric.reset();
+      labels(metric, sample.labelNames, sample.labelValues, null);
+      value.reset();
+      value.double64(VALUE, sample.value);
+      metric.message(valueField, value);
+      family.message(FAMILY_METRIC, metric);
+    }
+  }
+
+  private static void encodeDistribution(Message family, MetricFamilySamples samples, List<Sample> others) {
+    boolean histogram = samples.type == Collector.Type.HISTOGRAM;
+    String countName = samples.name + "_count";
+    String sumName = samples.name + "_sum";
+    String bucketName = samples.name + "_bucket";
+    String labelName = histogram ? "le" : "quantile";
+    // One metric per label set, the quantile or bucket label excluded
+    Map<List<String>, Distribution> distributions = new LinkedHashMap<>();
+    for (Sample sample : samples.samples) {
+      boolean point = histogram ? sample.name.equals(bucketName) : sample.name.equals(samples.name);
+      if (!point && !sample.name.equals(countName) && !sample.name.equals(sumName)) {
+        others.add(sample);
+        continue;
+      }
+      int labelIndex = point ? sample.labelNames.indexOf(labelName) : -1;
+      if (point && labelIndex < 0) {
+        others.add(sample);
+        continue;
+      }
+      List<String> key = new ArrayList<>(sample.labelValues);
+      if (labelIndex >= 0) {
+        key.remove(labelIndex);
+      }
+      Distribution distribution = distributions.computeIfAbsent(key, k -> new Distribution(sample, labelIndex));
+      if (sample.name.equals(countName)) {
+        distribution.count = (long) sample.value;
+      } else if (sample.name.equals(sumName)) {
+        distribution.sum = sample.value;
+      } else {
+        double bound = Double.parseDouble(sample.labelValues.get(labelIndex).replace("Inf", "Infinity"));
+        distribution.points.add(new double[]{bound, sample.value});
+      }
+    }
+    family.reset();
+    family.string(FAMILY_NAME, samples.name);
+    family.string(FAMILY_HELP, samples.help);
+    family.uint64(FAMILY_TYPE, histogram ? TYPE_HISTOGRAM : TYPE_SUMMARY);
+    Message metric = new Message();
+    Message value = new Message();
+    Message point = new Message();
+    for (Distribution distribution : distributions.values()) {
+      metric.reset();
+      labels(metric, distribution.labelNames, distribution.labelValues, distribution.excludedLabel);
+      value.reset();
+      value.uint64(SAMPLE_COUNT, distribution.count);
+      value.double64(SAMPLE_SUM, distribution.sum);
+      for (double[] p : distribution.points) {
+        if (histogram && Double.isInfinite(p[0])) {
+          continue;
+        }
+        point.reset();
+        if (histogram) {
+          point.uint64(BUCKET_CUMULATIVE_COUNT, (long) p[1]);
+          point.double64(BUCKET_UPPER_BOUND, p[0]);
+        } else {
+          point.double64(QUANTILE, p[0]);
+          point.double64(QUANTILE_VALUE, p[1]);
+        }
+        value.message(QUANTILES_OR_BUCKETS, point);
+      }
+      metric.message(histogram ? METRIC_HISTOGRAM : METRIC_SUMMARY, value);
+      family.message(FAMILY_METRIC, metric);
+    }
+  }
+
+  private static void labels(Message metric, List<String> names, List<String> values, String excluded) {
+    Message label = new Message();
+    for (int i = 0; i < names.size(); i++) {
+      if (names.get(i).equals(excluded)) {
+        continue;
+      }
+      label.reset();
+      label.string(LABEL_NAME, names.get(i));
+      label.string(LABEL_VALUE, values.get(i));
+      metric.message(METRIC_LABEL, label);
+    }
+  }
+
+  private static final class Distribution {
+    private final List<String> labelNames;
+    private final List<String> labelValues;
+    private final String excludedLabel;
+    private final List<double[]> points = new ArrayList<>();
+    private long count;
+    private double sum;
+
+    private Distribution(Sample sample, int labelIndex) {
+      labelNames = sample.labelNames;
+      labelValues = sample.labelValues;
+      excludedLabel = labelIndex >= 0 ? sample.labelNames.get(labelIndex) : null;
+    }
+  }
+
+  /**
+   * A protobuf message being encoded.
+   */
+  private static final class Message extends ByteArrayOutputStream {
+    private static final int VARINT = 0;
+    private static final int FIXED64 = 1;
+    private static final int LENGTH_DELIMITED = 2;
+
+    void varint(long value) {
+      while ((value & ~0x7FL) != 0) {
+        write((int) ((value & 0x7F) | 0x80));
+        value >>>= 7;
+      }
+      write((int) value);
+    }
+
+    private void tag(int field, int wireType) {
+      varint((field << 3) | wireType);
+    }
+
+    void uint64(int field, long value) {
+      tag(field, VARINT);
+      varint(value);
+    }
+
+    void double64(int field, double value) {
+      tag(field, FIXED64);
+      long bits = Double.doubleToRawLongBits(value);
+      for (int i = 0; i < 8; i++) {
+        write((int) (bits >>> (8 * i)) & 0xFF);
+      }
+    }
+
+    void string(int field, String value) {
+      if (value == null) {
+        return;
+      }
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      tag(field, LENGTH_DELIMITED);
+      varint(bytes.length);
+      write(bytes, 0, bytes.length);
+    }
+
+    void message(int field, Message message) {
+      tag(field, LENGTH_DELIMITED);
+      varint(message.size());
+      write(message.buf, 0, message.count);
+    }
+  }
+}
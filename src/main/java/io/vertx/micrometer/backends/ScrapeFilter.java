@@ -0,0 +1,198 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertx.micrometer.backends;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.NamingConvention;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import io.prometheus.client.Collector;
+import io.prometheus.client.Collector.MetricFamilySamples;
+import io.vertx.core.MultiMap;
+import io.vertx.micrometer.MetricsDomain;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Selects the metric families of a scrape, from its query parameters:
+ * <ul>
+ *   <li>{@code name[]}: the series names to render, as in Prometheus federation.</li>
+ *   <li>{@code domain}: the {@link MetricsDomain} of the families to render.</li>
+ * </ul>
+ * Each parameter can be repeated. Families must match both parameters, when set. Only the collectors of the selected
+ * series are collected: domains are resolved to the series names of the registry meters they contain.
+ *
+ * @author Joel Takvorian
+ */
+final class ScrapeFilter {
+  // Suffixes of the series of a Prometheus meter family, after its convention name
+  private static final String[] SERIES_SUFFIXES = {"", "_count", "_sum", "_bucket", "_max", "_active_count", "_duration_sum"};
+
+  private final Set<String> names;
+  private final List<String> domains;
+  private final List<String> prefixes;
+
+  private ScrapeFilter(Set<String> names, List<String> domains) {
+    this.names = names;
+    this.domains = domains;
+    this.prefixes = new ArrayList<>(domains.size());
+    for (String domain : domains) {
+      prefixes.add(domain.replace('.', '_'));
+    }
+  }
+
+  /**
+   * @param params the scrape query parameters
+   * @return the filter, or {@code null} to render all families
+   * @throws IllegalArgumentException if a domain is unknown
+   */
+  static ScrapeFilter of(MultiMap params) {
+    Set<String> names = new HashSet<>(params.getAll("name[]"));
+    List<String> domains = new ArrayList<>();
+    for (String domain : params.getAll("domain")) {
+      try {
+        domains.add(MetricsDomain.valueOf(domain).getPrefix());
+      } catch (IllegalArgumentException e) {
+        throw new IllegalArgumentException("Unknown metrics domain: " + domain);
+      }
+    }
+    if (names.isEmpty() && domains.isEmpty()) {
+      return null;
+    }
+    return new ScrapeFilter(names, domains);
+  }
+
+  /**
+   * @param registry the scraped registry
+   * @param unindexed collectors of the registry whose families are not known upfront, so that the registry cannot select
+   *                  them by name: they are always collected, then filtered
+   */
+  Enumeration<MetricFamilySamples> filter(PrometheusMeterRegistry registry, List<Collector> unindexed) {
+    Set<String> included = names.isEmpty() ? domainSeries(registry) : names;
+    List<MetricFamilySamples> extra = new ArrayList<>();
+    for (Collector collector : unindexed) {
+      for (MetricFamilySamples family : collector.collect()) {
+        // Families of the selected domains are kept by the domain filter below
+        MetricFamilySamples selected = names.isEmpty() ? family : select(family, names);
+        if (selected != null) {
+          extra.add(selected);
+        }
+      }
+    }
+    // An empty set would select everything
+    Enumeration<MetricFamilySamples> indexed = included.isEmpty()
+      ? Collections.emptyEnumeration()
+      : registry.getPrometheusRegistry().filteredMetricFamilySamples(included);
+    Enumeration<MetricFamilySamples> families = concat(indexed, Collections.enumeration(extra));
+    if (prefixes.isEmpty()) {
+      return families;
+    }
+    return new Enumeration<MetricFamilySamples>() {
+      private MetricFamilySamples next = findNext();
+
+      private MetricFamilySamples findNext() {
+        while (families.hasMoreElements()) {
+          MetricFamilySamples family = families.nextElement();
+          if (matchesDomain(family.name)) {
+            return family;
+          }
+        }
+        return null;
+      }
+
+      @Override
+      public boolean hasMoreElements() {
+        return next != null;
+      }
+
+      @Override
+      public MetricFamilySamples nextElement() {
+        if (next == null) {
+          throw new NoSuchElementException();
+        }
+        MetricFamilySamples family = next;
+        next = findNext();
+        return family;
+      }
+    };
+  }
+
+  /**
+   * @return the names of all the series the meters of the selected domains may have
+   */
+  private Set<String> domainSeries(PrometheusMeterRegistry registry) {
+    NamingConvention convention = registry.config().namingConvention();
+    Set<String> series = new HashSet<>();
+    for (Meter meter : registry.getMeters()) {
+      Meter.Id id = meter.getId();
+      if (inDomain(id.getName())) {
+        String name = convention.name(id.getName(), id.getType(), id.getBaseUnit());
+        for (String suffix : SERIES_SUFFIXES) {
+          series.add(name + suffix);
+        }
+      }
+    }
+    return series;
+  }
+
+  private boolean inDomain(String meter) {
+    for (String domain : domains) {
+      if (meter.startsWith(domain)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static MetricFamilySamples select(MetricFamilySamples family, Set<String> series) {
+    List<MetricFamilySamples.Sample> samples = new ArrayList<>();
+    for (MetricFamilySamples.Sample sample : family.samples) {
+      if (series.contains(sample.name)) {
+        samples.add(sample);
+      }
+    }
+    return samples.isEmpty() ? null : new MetricFamilySamples(family.name, family.type, family.help, samples);
+  }
+
+  private static Enumeration<MetricFamilySamples> concat(Enumeration<MetricFamilySamples> first, Enumeration<MetricFamilySamples> second) {
+    return new Enumeration<MetricFamilySamples>() {
+      @Override
+      public boolean hasMoreElements() {
+        return first.hasMoreElements() || second.hasMoreElements();
+      }
+
+      @Override
+      public MetricFamilySamples nextElement() {
+        return first.hasMoreElements() ? first.nextElement() : second.nextElement();
+      }
+    };
+  }
+
+  private boolean matchesDomain(String family) {
+    for (String prefix : prefixes) {
+      if (family.startsWith(prefix)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertx.micrometer.backends;
+
+import io.prometheus.client.Collector.MetricFamilySamples;
+import io.prometheus.client.exporter.common.TextFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Enumeration;
+import java.util.Locale;
+
+/**
+ * The exposition formats of a scrape, negotiated with the {@code Accept} header of the scraper.
+ *
+ * @author Joel Takvorian
+ */
+enum ScrapeFormat {
+
+  /**
+   * Prometheus text format 0.0.4, the default.
+   */
+  TEXT(TextFormat.CONTENT_TYPE_004) {
+    @Override
+    void write(OutputStream out, Enumeration<MetricFamilySamples> families) throws IOException {
+      Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+      TextFormat.write004(writer, families);
+      writer.flush();
+    }
+  },
+  /**
+   * OpenMetrics text format 1.0.0.
+   */
+  OPENMETRICS(OpenMetricsFormat.CONTENT_TYPE) {
+    @Override
+    void write(OutputStream out, Enumeration<MetricFamilySamples> families) throws IOException {
+      Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+      OpenMetricsFormat.write(writer, families);
+      writer.flush();
+    }
+  },
+  /**
+   * Prometheus protobuf format, as length-delimited {@code io.prometheus.client.MetricFamily} messages.
+   */
+  PROTOBUF(ProtobufFormat.CONTENT_TYPE) {
+    @Override
+    void write(OutputStream out, Enumeration<MetricFamilySamples> families) throws IOException {
+      ProtobufFormat.write(out, families);
+    }
+  };
+
+  private final String contentType;
+
+  ScrapeFormat(String contentType) {
+    this.contentType = contentType;
+  }
+
+  String contentType() {
+    return contentType;
+  }
+
+  abstract void write(OutputStream out, Enumeration<MetricFamilySamples> families) throws IOException;
+
+  /**
+   * @return the format of highest quality in the {@code Accept} header, {@link #TEXT} if none is supported
+   */
+  static ScrapeFormat negotiate(String accept) {
+    if (accept == null) {
+      return TEXT;
+    }
+    ScrapeFormat best = TEXT;
+    double bestQuality = 0;
+    for (String range : accept.split(",")) {
+      String[] params = range.split(";");
+      ScrapeFormat format = null;
+      String mediaType = params[0].trim().toLowerCase(Locale.ROOT);
+      if (mediaType.equals("application/openmetrics-text")) {
+        format = OPENMETRICS;
+      } else if (mediaType.equals("text/plain") || mediaType.equals("*/*")) {
+        format = TEXT;
+      }
+      double quality = 1;
+      boolean metricFamily = false;
+      boolean delimited = false;
+      for (int i = 1; i < params.length; i++) {
+        String param = params[i].trim();
+        if (param.startsWith("q=")) {
+          try {
+            quality = Double.parseDouble(param.substring(2));
+          } catch (NumberFormatException e) {
+            quality = 0;
+          }
+        } else if (param.equals("proto=io.prometheus.client.MetricFamily")) {
+          metricFamily = true;
+        } else if (param.equals("encoding=delimited")) {
+          delimited = true;
+        }
+      }
+      if (mediaType.equals("application/vnd.google.protobuf") && metricFamily && delimited) {
+        format = PROTOBUF;
+      }
+      if (format != null && quality > bestQuality) {
+        best = format;
+        bestQuality = quality;
+      }
+    }
+    return best;
+  }
+}
@@ -16,14 +16,26 @@
 
 package io.vertx.micrometer.impl;
 
+import io.micrometer.core.instrument.Clock;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.vertx.core.impl.logging.Logger;
+import io.vertx.core.impl.logging.LoggerFactory;
+import io.vertx.micrometer.DistributionOptions;
 import io.vertx.micrometer.Label;
 import io.vertx.micrometer.MetricsDomain;
+import io.vertx.micrometer.MicrometerMetricsOptions;
+import io.vertx.micrometer.impl.meters.AsyncRecorder;
+import io.vertx.micrometer.impl.meters.CompactHistograms;
 import io.vertx.micrometer.impl.meters.Counters;
 import io.vertx.micrometer.impl.meters.Gauges;
+import io.vertx.micrometer.impl.meters.MeterFamily;
 import io.vertx.micrometer.impl.meters.Summaries;
 import io.vertx.micrometer.impl.meters.Timers;
 
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.atomic.LongAdder;
 
@@ -33,12 +45,79 @@ import java.util.concurrent.atomic.LongAdder;
  * @author Joel Takvorian
  */
 public abstract class AbstractMetrics implements MicrometerMetrics {
+  private static final Logger LOGGER = LoggerFactory.getLogger(AbstractMetrics.class);
+
   protected final MeterRegistry registry;
   protected final MetricsDomain domain;
+  protected final Set<Label> enabledLabels;
+  protected final int maxSeries;
+  protected final boolean sharded;
+  protected final Clock clock;
+  private final AsyncRecorder recorder;
+  private final double samplingRate;
+  // Set when timers record into compact histograms
+  private final CompactHistograms compactHistograms;
+  private final boolean publishQuantiles;
+  private final List<DistributionOptions> distributions;
+  private final List<MeterFamily<?>> families = new CopyOnWriteArrayList<>();
 
-  AbstractMetrics(MeterRegistry registry, MetricsDomain domain) {
+  AbstractMetrics(MeterRegistry registry, MetricsDomain domain, MicrometerMetricsOptions options, AsyncRecorder recorder, Clock coarseClock, CompactHistograms compactHistograms) {
     this.registry = registry;
     this.domain = domain;
+    this.enabledLabels = EnumSet.noneOf(Label.class);
+    if (options.getLabels() != null) {
+      this.enabledLabels.addAll(options.getLabels());
+    }
+    this.maxSeries = options.getMaxSeriesPerFamily(domain);
+    this.sharded = options.isMeterShardingEnabled();
+    this.recorder = options.isAsyncRecordingEnabled(domain) ? recorder : null;
+    this.samplingRate = options.getSamplingRate(domain);
+    if (options.isCompactHistogramEnabled(domain)) {
+      // Without the built-in Prometheus backend, compact histograms are not published
+      this.compactHistograms = compactHistograms != null ? compactHistograms : new CompactHistograms();
+    } else {
+      this.compactHistograms = null;
+    }
+    // Same precedence as BackendRegistries.setupBackend
+    boolean prometheus = options.getMicrometerRegistry() == null
+      && (options.getInfluxDbOptions() == null || !options.getInfluxDbOptions().isEnabled())
+      && options.getPrometheusOptions() != null && options.getPrometheusOptions().isEnabled();
+    this.publishQuantiles = prometheus && options.getPrometheusOptions().isPublishQuantiles();
+    this.distributions = options.getDistributions();
+    if (domain != null) {
+      checkConflicts(prometheus);
+    }
+    this.clock = coarseClock != null && options.isCoarseClockEnabled(domain) ? coarseClock : options.getClock();
+  }
+
+  /**
+   * Options of a domain taking precedence over others are resolved by {@link #isShardable(String, boolean)} and
+   * {@link Timers}: warn about the ones that are ignored.
+   */
+  private void checkConflicts(boolean prometheus) {
+    if (sharded && (publishQuantiles || distributions.stream().anyMatch(this::appliesToDomain))) {
+      LOGGER.warn("Sharded timers and summaries have no histogram: those of " + domain + " with a distribution configured are not sharded");
+    }
+    if (sharded && samplingRate < 1) {
+      LOGGER.warn("Timers and summaries of " + domain + " are sampled: they are not sharded");
+    } else if (sharded && compactHistograms != null) {
+      LOGGER.warn("Timers of " + domain + " record into compact histograms: they are not sharded");
+    }
+    if (compactHistograms != null && samplingRate < 1) {
+      LOGGER.warn("Timers of " + domain + " record into compact histograms: they are not sampled, only summaries are");
+    }
+    if (compactHistograms != null && !prometheus) {
+      LOGGER.warn("Compact histograms are only exported by the built-in Prometheus backend: timers of " + domain + " only publish a count and a total time");
+    }
+  }
+
+  /**
+   * Values of disabled labels are ignored by meters: there is no need to compute them.
+   *
+   * @return true if the label is enabled
+   */
+  boolean isLabelEnabled(Label label) {
+    return enabledLabels.contains(label);
   }
 
   /**
@@ -54,23 +133,58 @@ public abstract class AbstractMetrics implements MicrometerMetrics {
     return domain == null ? null : domain.getPrefix();
   }
 
+  /**
+   * Remove the series that have not been used since the previous call.
+   */
+  void evictIdleSeries() {
+    families.forEach(MeterFamily::evictIdle);
+  }
+
+  /**
+   * Remove all the series created by this object, from the registry as well.
+   */
+  void removeAllSeries() {
+    families.forEach(MeterFamily::removeAll);
+  }
+
+  private <F extends MeterFamily<?>> F track(F family) {
+    families.add(family);
+    return family;
+  }
+
   Counters counters(String name, String description, Label... keys) {
-    return new Counters(domain.getPrefix() + name, description, registry, keys);
+    return track(new Counters(domain.getPrefix() + name, description, registry, enabledLabels, maxSeries, sharded, recorder, keys));
   }
 
   Gauges<LongAdder> longGauges(String name, String description, Label... keys) {
-    return new Gauges<>(domain.getPrefix() + name, description, LongAdder::new, LongAdder::doubleValue, registry, keys);
+    return track(new Gauges<>(domain.getPrefix() + name, description, LongAdder::new, LongAdder::doubleValue, registry, enabledLabels, maxSeries, keys));
   }
 
   Gauges<AtomicReference<Double>> doubleGauges(String name, String description, Label... keys) {
-    return new Gauges<>(domain.getPrefix() + name, description, () -> new AtomicReference<>(0d), AtomicReference::get, registry, keys);
+    return track(new Gauges<>(domain.getPrefix() + name, description, () -> new AtomicReference<>(0d), AtomicReference::get, registry, enabledLabels, maxSeries, keys));
   }
 
   Summaries summaries(String name, String description, Label... keys) {
-    return new Summaries(domain.getPrefix() + name, description, registry, keys);
+    String fullName = domain.getPrefix() + name;
+    return track(new Summaries(fullName, description, registry, enabledLabels, maxSeries, isShardable(fullName, false), recorder, samplingRate, keys));
   }
 
   Timers timers(String name, String description, Label... keys) {
-    return new Timers(domain.getPrefix() + name, description, registry, keys);
+    String fullName = domain.getPrefix() + name;
+    return track(new Timers(fullName, description, registry, enabledLabels, maxSeries, isShardable(fullName, true), recorder, samplingRate, compactHistograms, keys));
+  }
+
+  /**
+   * Sharded timers and summaries only keep a count and a total: they are not used when a distribution is published
+   * (percentiles, histogram), so that it is not silently dropped. Distributions configured through custom meter filters
+   * cannot be detected. Sampling and compact histograms, set per domain, also take precedence over the global sharding.
+   */
+  private boolean isShardable(String fullName, boolean timer) {
+    return sharded && samplingRate >= 1 && !(timer && compactHistograms != null) && !publishQuantiles && distributions.stream()
+      .noneMatch(d -> fullName.equals(d.getName()) || d.getName() == null && d.getDomain() == domain);
+  }
+
+  private boolean appliesToDomain(DistributionOptions distribution) {
+    return distribution.getName() != null ? distribution.getName().startsWith(domain.getPrefix()) : distribution.getDomain() == domain;
   }
 }
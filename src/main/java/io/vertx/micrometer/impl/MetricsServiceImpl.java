@@ -2,9 +2,13 @@ package io.vertx.micrometer.impl;
 
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
 import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Measurement;
 import io.micrometer.core.instrument.Meter;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Statistic;
 import io.micrometer.core.instrument.Timer;
 import io.micrometer.core.instrument.distribution.HistogramSnapshot;
 import io.vertx.core.json.JsonObject;
@@ -17,6 +21,7 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
@@ -96,12 +101,28 @@ public class MetricsServiceImpl implements MetricsService {
     JsonObject obj = new JsonObject().put("tags", tags);
     switch (meter.getId().getType()) {
       case COUNTER:
-        return counterToJson(obj, (Counter)meter);
+        if (meter instanceof FunctionCounter) {
+          // Sharded counter
+          return counterToJson(obj, ((FunctionCounter)meter).count());
+        }
+        return counterToJson(obj, ((Counter)meter).count());
       case GAUGE:
         return gaugeToJson(obj, (Gauge)meter);
       case TIMER:
+        if (meter instanceof FunctionTimer) {
+          // Sharded timer
+          return functionTimerToJson(obj, (FunctionTimer)meter);
+        }
+        if (!(meter instanceof Timer)) {
+          // Sampled timer
+          return timerMeasurementsToJson(obj, meter);
+        }
         return timerToJson(obj, (Timer)meter);
       case DISTRIBUTION_SUMMARY:
+        if (!(meter instanceof DistributionSummary)) {
+          // Sharded or sampled summary
+          return measurementsToJson(obj, meter);
+        }
         return summaryToJson(obj, (DistributionSummary)meter);
       case OTHER:
       default:
@@ -126,13 +147,63 @@ public class MetricsServiceImpl implements MetricsService {
       .put("maxMs", timer.max(TimeUnit.MILLISECONDS));
   }
 
+  private static JsonObject functionTimerToJson(JsonObject obj, FunctionTimer timer) {
+    return obj.put("type", "timer")
+      .put("count", (long) timer.count())
+      .put("totalTimeMs", timer.totalTime(TimeUnit.MILLISECONDS))
+      .put("meanMs", timer.mean(TimeUnit.MILLISECONDS));
+  }
+
+  private static JsonObject timerMeasurementsToJson(JsonObject obj, Meter meter) {
+    // Measured in the base time unit of the registry, set as the base unit of the meter
+    double toMs = (double) TimeUnit.valueOf(meter.getId().getBaseUnit().toUpperCase(Locale.ROOT)).toNanos(1) / TimeUnit.MILLISECONDS.toNanos(1);
+    long count = 0;
+    double total = 0;
+    double max = 0;
+    for (Measurement measurement : meter.measure()) {
+      if (measurement.getStatistic() == Statistic.COUNT) {
+        count = (long) measurement.getValue();
+      } else if (measurement.getStatistic() == Statistic.TOTAL_TIME) {
+        total = measurement.getValue() * toMs;
+      } else if (measurement.getStatistic() == Statistic.MAX) {
+        max = measurement.getValue() * toMs;
+      }
+    }
+    return obj.put("type", "timer")
+      .put("count", count)
+      .put("totalTimeMs", total)
+      .put("meanMs", count == 0 ? 0 : total / count)
+      .put("maxMs", max);
+  }
+
+  private static JsonObject measurementsToJson(JsonObject obj, Meter meter) {
+    long count = 0;
+    double total = 0;
+    Double max = null;
+    for (Measurement measurement : meter.measure()) {
+      if (measurement.getStatistic() == Statistic.COUNT) {
+        count = (long) measurement.getValue();
+      } else if (measurement.getStatistic() == Statistic.TOTAL) {
+        total = measurement.getValue();
+      } else if (measurement.getStatistic() == Statistic.MAX) {
+        max = measurement.getValue();
+      }
+    }
+    obj.put("type", "summary")
+      .put("count", count)
+      .put("total", total)
+      .put("mean", count == 0 ? 0 : total / count);
+    // Sharded summaries have no maximum
+    return max == null ? obj : obj.put("max", max);
+  }
+
   private static JsonObject gaugeToJson(JsonObject obj, Gauge gauge) {
     return obj.put("type", "gauge")
       .put("value", gauge.value());
   }
 
-  private static JsonObject counterToJson(JsonObject obj, Counter counter) {
+  private static JsonObject counterToJson(JsonObject obj, double count) {
     return obj.put("type", "counter")
-      .put("count", counter.count());
+      .put("count", count);
   }
 }
@@ -18,11 +18,14 @@ package io.vertx.micrometer.impl;
 
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.prometheus.PrometheusMeterRegistry;
-import io.prometheus.client.exporter.common.TextFormat;
 import io.vertx.core.Handler;
-import io.vertx.core.http.HttpHeaders;
 import io.vertx.ext.web.RoutingContext;
+import io.vertx.micrometer.MicrometerMetricsOptions;
+import io.vertx.micrometer.VertxPrometheusOptions;
 import io.vertx.micrometer.backends.BackendRegistries;
+import io.vertx.micrometer.backends.BackendRegistry;
+import io.vertx.micrometer.backends.PrometheusBackendRegistry;
+import io.vertx.micrometer.backends.PrometheusScraper;
 
 /**
  * @author Thomas Segismont
@@ -30,6 +33,8 @@ import io.vertx.micrometer.backends.BackendRegistries;
 public class PrometheusScrapingHandlerImpl implements Handler<RoutingContext> {
 
   private final String registryName;
+  // Scraper of a registry not created by the Prometheus backend, with default options
+  private volatile PrometheusScraper scraper;
 
   public PrometheusScrapingHandlerImpl() {
     registryName = null;
@@ -48,10 +53,7 @@ public class PrometheusScrapingHandlerImpl implements Handler<RoutingContext> {
       registry = BackendRegistries.getNow(registryName);
     }
     if (registry instanceof PrometheusMeterRegistry) {
-      PrometheusMeterRegistry prometheusMeterRegistry = (PrometheusMeterRegistry) registry;
-      rc.response()
-        .putHeader(HttpHeaders.CONTENT_TYPE, TextFormat.CONTENT_TYPE_004)
-        .end(prometheusMeterRegistry.scrape());
+      scraper((PrometheusMeterRegistry) registry).handle(rc.request());
     } else {
       String statusMessage = "Invalid registry: " + (registry != null ? registry.getClass().getName() : null);
       rc.response()
@@ -59,4 +61,17 @@ public class PrometheusScrapingHandlerImpl implements Handler<RoutingContext> {
         .end();
     }
   }
+
+  private PrometheusScraper scraper(PrometheusMeterRegistry registry) {
+    BackendRegistry backend = BackendRegistries.getBackendNow(registryName == null ? MicrometerMetricsOptions.DEFAULT_REGISTRY_NAME : registryName);
+    if (backend instanceof PrometheusBackendRegistry) {
+      return ((PrometheusBackendRegistry) backend).getScraper();
+    }
+    PrometheusScraper s = scraper;
+    if (s == null || s.getRegistry() != registry) {
+      s = new PrometheusScraper(registry, new VertxPrometheusOptions());
+      scraper = s;
+    }
+    return s;
+  }
 }
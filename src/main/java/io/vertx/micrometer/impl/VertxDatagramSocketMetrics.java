@@ -16,12 +16,16 @@
  */
 package io.vertx.micrometer.impl;
 
+import io.micrometer.core.instrument.Clock;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.vertx.core.net.SocketAddress;
 import io.vertx.core.net.impl.SocketAddressImpl;
 import io.vertx.core.spi.metrics.DatagramSocketMetrics;
 import io.vertx.micrometer.Label;
 import io.vertx.micrometer.MetricsDomain;
+import io.vertx.micrometer.MicrometerMetricsOptions;
+import io.vertx.micrometer.impl.meters.AsyncRecorder;
+import io.vertx.micrometer.impl.meters.CompactHistograms;
 import io.vertx.micrometer.impl.meters.Counters;
 import io.vertx.micrometer.impl.meters.Summaries;
 
@@ -35,8 +39,8 @@ class VertxDatagramSocketMetrics extends AbstractMetrics implements DatagramSock
 
   private volatile String localAddress;
 
-  VertxDatagramSocketMetrics(MeterRegistry registry) {
-    super(registry, MetricsDomain.DATAGRAM_SOCKET);
+  VertxDatagramSocketMetrics(MeterRegistry registry, MicrometerMetricsOptions options, AsyncRecorder recorder, Clock coarseClock, CompactHistograms compactHistograms) {
+    super(registry, MetricsDomain.DATAGRAM_SOCKET, options, recorder, coarseClock, compactHistograms);
     bytesReceived = summaries("bytesReceived", "Total number of datagram bytes received", Label.LOCAL);
     bytesSent = summaries("bytesSent", "Total number of datagram bytes sent");
     errorCount = counters("errors", "Total number of datagram errors", Label.CLASS_NAME);
@@ -61,7 +65,7 @@ class VertxDatagramSocketMetrics extends AbstractMetrics implements DatagramSock
 
   @Override
   public void exceptionOccurred(Void socketMetric, SocketAddress remoteAddress, Throwable t) {
-    errorCount.get(t.getClass().getSimpleName()).increment();
+    errorCount.get(isLabelEnabled(Label.CLASS_NAME) ? t.getClass().getSimpleName() : null).increment();
   }
 
   @Override
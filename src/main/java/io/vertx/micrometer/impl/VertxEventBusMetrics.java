@@ -15,16 +15,21 @@
  */
 package io.vertx.micrometer.impl;
 
+import io.micrometer.core.instrument.Clock;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.vertx.core.eventbus.ReplyFailure;
 import io.vertx.core.spi.metrics.EventBusMetrics;
 import io.vertx.micrometer.Label;
 import io.vertx.micrometer.MetricsDomain;
+import io.vertx.micrometer.MicrometerMetricsOptions;
+import io.vertx.micrometer.impl.meters.AsyncRecorder;
+import io.vertx.micrometer.impl.meters.CompactHistograms;
 import io.vertx.micrometer.impl.meters.Counters;
 import io.vertx.micrometer.impl.meters.Gauges;
 import io.vertx.micrometer.impl.meters.Summaries;
 import io.vertx.micrometer.impl.meters.Timers;
 
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.LongAdder;
 
 /**
@@ -45,8 +50,8 @@ class VertxEventBusMetrics extends AbstractMetrics implements EventBusMetrics<Ve
   private final Summaries bytesRead;
   private final Summaries bytesWritten;
 
-  VertxEventBusMetrics(MeterRegistry registry) {
-    super(registry, MetricsDomain.EVENT_BUS);
+  VertxEventBusMetrics(MeterRegistry registry, MicrometerMetricsOptions options, AsyncRecorder recorder, Clock coarseClock, CompactHistograms compactHistograms) {
+    super(registry, MetricsDomain.EVENT_BUS, options, recorder, coarseClock, compactHistograms);
     handlers = longGauges("handlers", "Number of event bus handlers in use", Label.EB_ADDRESS);
     pending = longGauges("pending", "Number of messages not processed yet", Label.EB_ADDRESS, Label.EB_SIDE);
     published = counters("published", "Number of messages published (publish / subscribe)", Label.EB_ADDRESS, Label.EB_SIDE);
@@ -89,16 +94,16 @@ class VertxEventBusMetrics extends AbstractMetrics implements EventBusMetrics<Ve
   public void beginHandleMessage(Handler handler, boolean local) {
     if (!handler.isIgnored()) {
       pending.get(handler.address, Labels.getSide(local)).decrement();
-      handler.timer = processTime.start();
+      handler.processingStart = clock.monotonicTime();
     }
   }
 
   @Override
   public void endHandleMessage(Handler handler, Throwable failure) {
     if (!handler.isIgnored()) {
-      handler.timer.end(handler.address);
+      processTime.get(handler.address).record(clock.monotonicTime() - handler.processingStart, TimeUnit.NANOSECONDS);
       if (failure != null) {
-        errorCount.get(handler.address, failure.getClass().getSimpleName()).increment();
+        errorCount.get(handler.address, isLabelEnabled(Label.CLASS_NAME) ? failure.getClass().getSimpleName() : null).increment();
       }
     }
   }
@@ -149,11 +154,12 @@ class VertxEventBusMetrics extends AbstractMetrics implements EventBusMetrics<Ve
 
   @Override
   public void close() {
+    removeAllSeries();
   }
 
   public static class Handler {
     private final String address;
-    private Timers.EventTiming timer;
+    private long processingStart;
 
     Handler(String address) {
       this.address = address;
@@ -16,7 +16,10 @@
 
 package io.vertx.micrometer.impl;
 
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import io.vertx.core.http.HttpClientRequest;
 import io.vertx.core.http.HttpClientResponse;
 import io.vertx.core.http.WebSocket;
@@ -24,10 +27,15 @@ import io.vertx.core.net.SocketAddress;
 import io.vertx.core.spi.metrics.HttpClientMetrics;
 import io.vertx.micrometer.Label;
 import io.vertx.micrometer.MetricsDomain;
+import io.vertx.micrometer.MicrometerMetricsOptions;
+import io.vertx.micrometer.impl.meters.AsyncRecorder;
+import io.vertx.micrometer.impl.meters.CompactHistograms;
 import io.vertx.micrometer.impl.meters.Counters;
 import io.vertx.micrometer.impl.meters.Gauges;
+import io.vertx.micrometer.impl.meters.MeterFamily;
 import io.vertx.micrometer.impl.meters.Timers;
 
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.LongAdder;
 
 /**
@@ -40,8 +48,8 @@ class VertxHttpClientMetrics extends VertxNetClientMetrics {
   private final Counters responseCount;
   private final Gauges<LongAdder> wsConnections;
 
-  VertxHttpClientMetrics(MeterRegistry registry) {
-    super(registry, MetricsDomain.HTTP_CLIENT);
+  VertxHttpClientMetrics(MeterRegistry registry, MicrometerMetricsOptions options, AsyncRecorder recorder, Clock coarseClock, CompactHistograms compactHistograms) {
+    super(registry, MetricsDomain.HTTP_CLIENT, options, recorder, coarseClock, compactHistograms);
     requests = longGauges("requests", "Number of requests waiting for a response", Label.LOCAL, Label.REMOTE, Label.HTTP_PATH, Label.HTTP_METHOD);
     requestCount = counters("requestCount", "Number of requests sent", Label.LOCAL, Label.REMOTE, Label.HTTP_PATH, Label.HTTP_METHOD);
     responseTime = timers("responseTime", "Response time", Label.LOCAL, Label.REMOTE, Label.HTTP_PATH, Label.HTTP_METHOD, Label.HTTP_CODE);
@@ -55,8 +63,19 @@ class VertxHttpClientMetrics extends VertxNetClientMetrics {
   }
 
   class Instance extends VertxNetClientMetrics.Instance implements HttpClientMetrics<VertxHttpClientMetrics.Handler, String, String, Void, Void> {
+    private final MeterFamily.Bound<LongAdder> requests;
+    private final MeterFamily.Bound<Counter> requestCount;
+    private final MeterFamily.Bound<Timer> responseTime;
+    private final MeterFamily.Bound<Counter> responseCount;
+    private final MeterFamily.Bound<LongAdder> wsConnections;
+
     Instance(String localAddress) {
       super(localAddress);
+      requests = VertxHttpClientMetrics.this.requests.bind(local);
+      requestCount = VertxHttpClientMetrics.this.requestCount.bind(local);
+      responseTime = VertxHttpClientMetrics.this.responseTime.bind(local);
+      responseCount = VertxHttpClientMetrics.this.responseCount.bind(local);
+      wsConnections = VertxHttpClientMetrics.this.wsConnections.bind(local);
     }
 
     @Override
@@ -87,10 +106,12 @@ class VertxHttpClientMetrics extends VertxNetClientMetrics {
 
     @Override
     public Handler requestBegin(Void endpointMetric, String remote, SocketAddress localAddress, SocketAddress remoteAddress, HttpClientRequest request) {
-      Handler handler = new Handler(remote, request.path(),request.method().name());
-      requests.get(local, remote, handler.path, handler.method).increment();
-      requestCount.get(local, remote, handler.path, handler.method).increment();
-      handler.timer = responseTime.start();
+      Handler handler = new Handler(remote,
+        isLabelEnabled(Label.HTTP_PATH) ? request.path() : null,
+        isLabelEnabled(Label.HTTP_METHOD) ? request.method().name() : null);
+      requests.get(remote, handler.path, handler.method).increment();
+      requestCount.get(remote, handler.path, handler.method).increment();
+      handler.requestStart = clock.monotonicTime();
       return handler;
     }
 
@@ -109,30 +130,36 @@ class VertxHttpClientMetrics extends VertxNetClientMetrics {
 
     @Override
     public void requestReset(Handler handler) {
-      requests.get(local, handler.address, handler.path, handler.method).decrement();
+      requests.get(handler.address, handler.path, handler.method).decrement();
     }
 
     @Override
     public void responseEnd(Handler handler, HttpClientResponse response) {
-      String code = String.valueOf(response.statusCode());
-      requests.get(local, handler.address, handler.path, handler.method).decrement();
-      responseCount.get(local, handler.address, handler.path, handler.method, code).increment();
-      handler.timer.end(local, handler.address, handler.path, handler.method, code);
+      String code = isLabelEnabled(Label.HTTP_CODE) ? String.valueOf(response.statusCode()) : null;
+      requests.get(handler.address, handler.path, handler.method).decrement();
+      responseCount.get(handler.address, handler.path, handler.method, code).increment();
+      responseTime.get(handler.address, handler.path, handler.method, code).record(clock.monotonicTime() - handler.requestStart, TimeUnit.NANOSECONDS);
     }
 
     @Override
     public String connected(Void endpointMetric, String remote, WebSocket webSocket) {
-      wsConnections.get(local, remote).increment();
+      wsConnections.get(remote).increment();
       return remote;
     }
 
     @Override
     public void disconnected(String remote) {
-      wsConnections.get(local, remote).decrement();
+      wsConnections.get(remote).decrement();
     }
 
     @Override
     public void close() {
+      super.close();
+      requests.close();
+      requestCount.close();
+      responseTime.close();
+      responseCount.close();
+      wsConnections.close();
     }
   }
 
@@ -140,7 +167,7 @@ class VertxHttpClientMetrics extends VertxNetClientMetrics {
     private final String address;
     private final String path;
     private final String method;
-    private Timers.EventTiming timer;
+    private long requestStart;
 
     Handler(String address, String path, String method) {
       this.address = address;
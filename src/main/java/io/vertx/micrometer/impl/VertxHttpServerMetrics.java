@@ -15,7 +15,10 @@
  */
 package io.vertx.micrometer.impl;
 
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import io.vertx.core.http.HttpMethod;
 import io.vertx.core.http.HttpServerRequest;
 import io.vertx.core.http.HttpServerResponse;
@@ -24,10 +27,15 @@ import io.vertx.core.net.SocketAddress;
 import io.vertx.core.spi.metrics.HttpServerMetrics;
 import io.vertx.micrometer.Label;
 import io.vertx.micrometer.MetricsDomain;
+import io.vertx.micrometer.MicrometerMetricsOptions;
+import io.vertx.micrometer.impl.meters.AsyncRecorder;
+import io.vertx.micrometer.impl.meters.CompactHistograms;
 import io.vertx.micrometer.impl.meters.Counters;
 import io.vertx.micrometer.impl.meters.Gauges;
+import io.vertx.micrometer.impl.meters.MeterFamily;
 import io.vertx.micrometer.impl.meters.Timers;
 
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.LongAdder;
 
 /**
@@ -40,8 +48,8 @@ class VertxHttpServerMetrics extends VertxNetServerMetrics {
   private final Timers processingTime;
   private final Gauges<LongAdder> wsConnections;
 
-  VertxHttpServerMetrics(MeterRegistry registry) {
-    super(registry, MetricsDomain.HTTP_SERVER);
+  VertxHttpServerMetrics(MeterRegistry registry, MicrometerMetricsOptions options, AsyncRecorder recorder, Clock coarseClock, CompactHistograms compactHistograms) {
+    super(registry, MetricsDomain.HTTP_SERVER, options, recorder, coarseClock, compactHistograms);
     requests = longGauges("requests", "Number of requests being processed", Label.LOCAL, Label.REMOTE, Label.HTTP_PATH, Label.HTTP_METHOD);
     requestCount = counters("requestCount", "Number of processed requests", Label.LOCAL, Label.REMOTE, Label.HTTP_PATH, Label.HTTP_METHOD, Label.HTTP_CODE);
     requestResetCount = counters("requestResetCount", "Number of requests reset", Label.LOCAL, Label.REMOTE, Label.HTTP_PATH, Label.HTTP_METHOD);
@@ -56,52 +64,71 @@ class VertxHttpServerMetrics extends VertxNetServerMetrics {
   }
 
   class Instance extends VertxNetServerMetrics.Instance implements HttpServerMetrics<Handler, String, String> {
+    private final MeterFamily.Bound<LongAdder> requests;
+    private final MeterFamily.Bound<Counter> requestCount;
+    private final MeterFamily.Bound<Counter> requestResetCount;
+    private final MeterFamily.Bound<Timer> processingTime;
+    private final MeterFamily.Bound<LongAdder> wsConnections;
+
     Instance(String local) {
       super(local);
+      requests = VertxHttpServerMetrics.this.requests.bind(local);
+      requestCount = VertxHttpServerMetrics.this.requestCount.bind(local);
+      requestResetCount = VertxHttpServerMetrics.this.requestResetCount.bind(local);
+      processingTime = VertxHttpServerMetrics.this.processingTime.bind(local);
+      wsConnections = VertxHttpServerMetrics.this.wsConnections.bind(local);
     }
 
     @Override
     public Handler requestBegin(String remote, HttpServerRequest request) {
-      Handler handler = new Handler(remote, request.path(), request.method().name());
-      requests.get(local, remote, handler.path, handler.method).increment();
-      handler.timer = processingTime.start();
+      Handler handler = new Handler(remote,
+        isLabelEnabled(Label.HTTP_PATH) ? request.path() : null,
+        isLabelEnabled(Label.HTTP_METHOD) ? request.method().name() : null);
+      requests.get(remote, handler.path, handler.method).increment();
+      handler.requestStart = clock.monotonicTime();
       return handler;
     }
 
     @Override
     public void requestReset(Handler handler) {
-      requestResetCount.get(local, handler.address, handler.path, handler.method).increment();
-      requests.get(local, handler.address, handler.path, handler.method).decrement();
+      requestResetCount.get(handler.address, handler.path, handler.method).increment();
+      requests.get(handler.address, handler.path, handler.method).decrement();
     }
 
     @Override
     public Handler responsePushed(String remote, HttpMethod method, String uri, HttpServerResponse response) {
       Handler handler = new Handler(remote, uri, method.name());
-      requests.get(local, remote, handler.path, handler.method).increment();
+      requests.get(remote, handler.path, handler.method).increment();
       return handler;
     }
 
     @Override
     public void responseEnd(Handler handler, HttpServerResponse response) {
-      String code = String.valueOf(response.getStatusCode());
-      handler.timer.end(local, handler.address, handler.path, handler.method, code);
-      requestCount.get(local, handler.address, handler.path, handler.method, code).increment();
-      requests.get(local, handler.address, handler.path, handler.method).decrement();
+      String code = isLabelEnabled(Label.HTTP_CODE) ? String.valueOf(response.getStatusCode()) : null;
+      processingTime.get(handler.address, handler.path, handler.method, code).record(clock.monotonicTime() - handler.requestStart, TimeUnit.NANOSECONDS);
+      requestCount.get(handler.address, handler.path, handler.method, code).increment();
+      requests.get(handler.address, handler.path, handler.method).decrement();
     }
 
     @Override
     public String connected(String socketMetric, Handler handler, ServerWebSocket serverWebSocket) {
-      wsConnections.get(local, handler.address).increment();
+      wsConnections.get(handler.address).increment();
       return handler.address;
     }
 
     @Override
     public void disconnected(String remote) {
-      wsConnections.get(local, remote).decrement();
+      wsConnections.get(remote).decrement();
     }
 
     @Override
     public void close() {
+      super.close();
+      requests.close();
+      requestCount.close();
+      requestResetCount.close();
+      processingTime.close();
+      wsConnections.close();
     }
   }
 
@@ -109,7 +136,7 @@ class VertxHttpServerMetrics extends VertxNetServerMetrics {
     private final String address;
     private final String path;
     private final String method;
-    private Timers.EventTiming timer;
+    private long requestStart;
 
     Handler(String address, String path, String method) {
       this.address = address;
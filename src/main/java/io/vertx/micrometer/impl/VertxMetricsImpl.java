@@ -18,6 +18,7 @@ package io.vertx.micrometer.impl;
 
 import io.micrometer.core.instrument.MeterRegistry;
 import io.vertx.core.Verticle;
+import io.vertx.core.Vertx;
 import io.vertx.core.datagram.DatagramSocketOptions;
 import io.vertx.core.http.HttpClientOptions;
 import io.vertx.core.http.HttpServerOptions;
@@ -29,6 +30,12 @@ import io.vertx.core.spi.metrics.*;
 import io.vertx.micrometer.MicrometerMetricsOptions;
 import io.vertx.micrometer.backends.BackendRegistries;
 import io.vertx.micrometer.backends.BackendRegistry;
+import io.vertx.micrometer.backends.PrometheusBackendRegistry;
+import io.vertx.micrometer.impl.meters.AsyncRecorder;
+import io.vertx.micrometer.impl.meters.CoarseClock;
+import io.vertx.micrometer.impl.meters.CompactHistograms;
+
+import java.util.stream.Stream;
 
 import static io.vertx.micrometer.MetricsDomain.*;
 
@@ -40,46 +47,75 @@ import static io.vertx.micrometer.MetricsDomain.*;
 public class VertxMetricsImpl extends AbstractMetrics implements VertxMetrics {
   private final BackendRegistry backendRegistry;
   private final String registryName;
-  private final EventBusMetrics eventBusMetrics;
-  private final DatagramSocketMetrics datagramSocketMetrics;
+  private final long seriesIdleTimeout;
+  private final VertxEventBusMetrics eventBusMetrics;
+  private final VertxDatagramSocketMetrics datagramSocketMetrics;
   private final VertxNetClientMetrics netClientMetrics;
   private final VertxNetServerMetrics netServerMetrics;
   private final VertxHttpClientMetrics httpClientMetrics;
   private final VertxHttpServerMetrics httpServerMetrics;
   private final VertxPoolMetrics poolMetrics;
   private final VertxVerticleMetrics verticleMetrics;
+  private final AsyncRecorder recorder;
+  private final CoarseClock coarseClock;
+  private Vertx vertx;
+  private long evictionTimer = -1;
 
   /**
    * @param options Vertx Prometheus options
    */
   public VertxMetricsImpl(MicrometerMetricsOptions options, BackendRegistry backendRegistry) {
-    super(backendRegistry.getMeterRegistry(), null);
+    super(backendRegistry.getMeterRegistry(), null, options, null, null, null);
     this.backendRegistry = backendRegistry;
     registryName = options.getRegistryName();
+    seriesIdleTimeout = options.getSeriesIdleTimeout();
     MeterRegistry registry = backendRegistry.getMeterRegistry();
+    recorder = options.getAsyncRecordingDomains() == null || options.getAsyncRecordingDomains().isEmpty() ? null
+      : new AsyncRecorder(registry, options.getAsyncRecordingBufferSize(), options.getAsyncRecordingMaxDelay());
+    coarseClock = options.getCoarseClockDomains() == null || options.getCoarseClockDomains().isEmpty() ? null
+      : new CoarseClock(options.getCoarseClockResolution());
+    // Only the built-in Prometheus backend publishes the buckets of compact histograms
+    CompactHistograms compactHistograms = backendRegistry instanceof PrometheusBackendRegistry
+      ? ((PrometheusBackendRegistry) backendRegistry).getCompactHistograms() : null;
 
     eventBusMetrics = options.isMetricsCategoryDisabled(EVENT_BUS) ? null
-      : new VertxEventBusMetrics(registry);
+      : new VertxEventBusMetrics(registry, options, recorder, coarseClock, compactHistograms);
     datagramSocketMetrics = options.isMetricsCategoryDisabled(DATAGRAM_SOCKET) ? null
-      : new VertxDatagramSocketMetrics(registry);
+      : new VertxDatagramSocketMetrics(registry, options, recorder, coarseClock, compactHistograms);
     netClientMetrics = options.isMetricsCategoryDisabled(NET_CLIENT) ? null
-      : new VertxNetClientMetrics(registry);
+      : new VertxNetClientMetrics(registry, options, recorder, coarseClock, compactHistograms);
     netServerMetrics = options.isMetricsCategoryDisabled(NET_SERVER) ? null
-      : new VertxNetServerMetrics(registry);
+      : new VertxNetServerMetrics(registry, options, recorder, coarseClock, compactHistograms);
     httpClientMetrics = options.isMetricsCategoryDisabled(HTTP_CLIENT) ? null
-      : new VertxHttpClientMetrics(registry);
+      : new VertxHttpClientMetrics(registry, options, recorder, coarseClock, compactHistograms);
     httpServerMetrics = options.isMetricsCategoryDisabled(HTTP_SERVER) ? null
-      : new VertxHttpServerMetrics(registry);
+      : new VertxHttpServerMetrics(registry, options, recorder, coarseClock, compactHistograms);
     poolMetrics = options.isMetricsCategoryDisabled(NAMED_POOLS) ? null
-      : new VertxPoolMetrics(registry);
+      : new VertxPoolMetrics(registry, options, recorder, coarseClock, compactHistograms);
     verticleMetrics = options.isMetricsCategoryDisabled(VERTICLES) ? null
-      : new VertxVerticleMetrics(registry);
+      : new VertxVerticleMetrics(registry, options, recorder, coarseClock, compactHistograms);
   }
 
   void init() {
     backendRegistry.init();
   }
 
+  @Override
+  public void vertxCreated(Vertx vertx) {
+    this.vertx = vertx;
+    if (seriesIdleTimeout > 0) {
+      evictionTimer = vertx.setPeriodic(seriesIdleTimeout, id -> evictIdleSeries());
+    }
+  }
+
+  @Override
+  void evictIdleSeries() {
+    Stream.of(eventBusMetrics, datagramSocketMetrics, netClientMetrics, netServerMetrics, httpClientMetrics,
+      httpServerMetrics, poolMetrics, verticleMetrics)
+      .filter(m -> m != null)
+      .forEach(AbstractMetrics::evictIdleSeries);
+  }
+
   @Override
   public void verticleDeployed(Verticle verticle) {
     if (verticleMetrics != null) {
@@ -157,6 +193,15 @@ public class VertxMetricsImpl extends AbstractMetrics implements VertxMetrics {
 
   @Override
   public void close() {
+    if (evictionTimer >= 0) {
+      vertx.cancelTimer(evictionTimer);
+    }
+    if (recorder != null) {
+      recorder.close();
+    }
+    if (coarseClock != null) {
+      coarseClock.close();
+    }
     BackendRegistries.stop(registryName);
   }
 }
@@ -16,14 +16,21 @@
 
 package io.vertx.micrometer.impl;
 
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.vertx.core.net.SocketAddress;
 import io.vertx.core.net.impl.SocketAddressImpl;
 import io.vertx.core.spi.metrics.TCPMetrics;
 import io.vertx.micrometer.Label;
 import io.vertx.micrometer.MetricsDomain;
+import io.vertx.micrometer.MicrometerMetricsOptions;
+import io.vertx.micrometer.impl.meters.AsyncRecorder;
+import io.vertx.micrometer.impl.meters.CompactHistograms;
 import io.vertx.micrometer.impl.meters.Counters;
 import io.vertx.micrometer.impl.meters.Gauges;
+import io.vertx.micrometer.impl.meters.MeterFamily;
 import io.vertx.micrometer.impl.meters.Summaries;
 
 import java.util.concurrent.atomic.LongAdder;
@@ -37,12 +44,12 @@ class VertxNetClientMetrics extends AbstractMetrics {
   private final Summaries bytesSent;
   private final Counters errorCount;
 
-  VertxNetClientMetrics(MeterRegistry registry) {
-    this(registry, MetricsDomain.NET_CLIENT);
+  VertxNetClientMetrics(MeterRegistry registry, MicrometerMetricsOptions options, AsyncRecorder recorder, Clock coarseClock, CompactHistograms compactHistograms) {
+    this(registry, MetricsDomain.NET_CLIENT, options, recorder, coarseClock, compactHistograms);
   }
 
-  VertxNetClientMetrics(MeterRegistry registry, MetricsDomain domain) {
-    super(registry, domain);
+  VertxNetClientMetrics(MeterRegistry registry, MetricsDomain domain, MicrometerMetricsOptions options, AsyncRecorder recorder, Clock coarseClock, CompactHistograms compactHistograms) {
+    super(registry, domain, options, recorder, coarseClock, compactHistograms);
     connections = longGauges("connections", "Number of connections to the remote host currently opened", Label.LOCAL, Label.REMOTE);
     bytesReceived = summaries("bytesReceived", "Number of bytes received from the remote host", Label.LOCAL, Label.REMOTE);
     bytesSent = summaries("bytesSent", "Number of bytes sent to the remote host", Label.LOCAL, Label.REMOTE);
@@ -55,40 +62,52 @@ class VertxNetClientMetrics extends AbstractMetrics {
 
   class Instance implements MicrometerMetrics, TCPMetrics<String> {
     protected final String local;
+    private final MeterFamily.Bound<LongAdder> connections;
+    private final MeterFamily.Bound<DistributionSummary> bytesReceived;
+    private final MeterFamily.Bound<DistributionSummary> bytesSent;
+    private final MeterFamily.Bound<Counter> errorCount;
 
     Instance(String localAddress) {
       this.local = localAddress == null ? "?" : localAddress;
+      connections = VertxNetClientMetrics.this.connections.bind(local);
+      bytesReceived = VertxNetClientMetrics.this.bytesReceived.bind(local);
+      bytesSent = VertxNetClientMetrics.this.bytesSent.bind(local);
+      errorCount = VertxNetClientMetrics.this.errorCount.bind(local);
     }
 
     @Override
     public String connected(SocketAddress remoteAddress, String remoteName) {
-      String remote = Labels.fromAddress(new SocketAddressImpl(remoteAddress.port(), remoteName));
-      connections.get(local, remote).increment();
+      String remote = isLabelEnabled(Label.REMOTE) ? Labels.fromAddress(new SocketAddressImpl(remoteAddress.port(), remoteName)) : null;
+      connections.get(remote).increment();
       return remote;
     }
 
     @Override
     public void disconnected(String remote, SocketAddress remoteAddress) {
-      connections.get(local, remote).decrement();
+      connections.get(remote).decrement();
     }
 
     @Override
     public void bytesRead(String remote, SocketAddress remoteAddress, long numberOfBytes) {
-      bytesReceived.get(local, remote).record(numberOfBytes);
+      bytesReceived.get(remote).record(numberOfBytes);
     }
 
     @Override
     public void bytesWritten(String remote, SocketAddress remoteAddress, long numberOfBytes) {
-      bytesSent.get(local, remote).record(numberOfBytes);
+      bytesSent.get(remote).record(numberOfBytes);
     }
 
     @Override
     public void exceptionOccurred(String remote, SocketAddress remoteAddress, Throwable t) {
-      errorCount.get(local, remote, t.getClass().getSimpleName()).increment();
+      errorCount.get(remote, isLabelEnabled(Label.CLASS_NAME) ? t.getClass().getSimpleName() : null).increment();
     }
 
     @Override
     public void close() {
+      connections.close();
+      bytesReceived.close();
+      bytesSent.close();
+      errorCount.close();
     }
 
     @Override
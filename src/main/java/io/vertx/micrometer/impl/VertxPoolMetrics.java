@@ -16,14 +16,22 @@
 
 package io.vertx.micrometer.impl;
 
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import io.vertx.core.spi.metrics.PoolMetrics;
 import io.vertx.micrometer.Label;
 import io.vertx.micrometer.MetricsDomain;
+import io.vertx.micrometer.MicrometerMetricsOptions;
+import io.vertx.micrometer.impl.meters.AsyncRecorder;
+import io.vertx.micrometer.impl.meters.CompactHistograms;
 import io.vertx.micrometer.impl.meters.Counters;
 import io.vertx.micrometer.impl.meters.Gauges;
+import io.vertx.micrometer.impl.meters.MeterFamily;
 import io.vertx.micrometer.impl.meters.Timers;
 
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.atomic.LongAdder;
 
@@ -38,8 +46,8 @@ class VertxPoolMetrics extends AbstractMetrics {
   private final Gauges<AtomicReference<Double>> usageRatio;
   private final Counters completed;
 
-  VertxPoolMetrics(MeterRegistry registry) {
-    super(registry, MetricsDomain.NAMED_POOLS);
+  VertxPoolMetrics(MeterRegistry registry, MicrometerMetricsOptions options, AsyncRecorder recorder, Clock coarseClock, CompactHistograms compactHistograms) {
+    super(registry, MetricsDomain.NAMED_POOLS, options, recorder, coarseClock, compactHistograms);
     queueDelay = timers("queue.delay", "Queue time for a resource", Label.POOL_TYPE, Label.POOL_NAME);
     queueSize = longGauges("queue.size", "Number of elements waiting for a resource", Label.POOL_TYPE, Label.POOL_NAME);
     usage = timers("usage", "Time using a resource", Label.POOL_TYPE, Label.POOL_NAME);
@@ -52,55 +60,72 @@ class VertxPoolMetrics extends AbstractMetrics {
     return new Instance(poolType, poolName, maxPoolSize);
   }
 
-  class Instance implements MicrometerMetrics, PoolMetrics<Timers.EventTiming> {
-    private final String poolType;
-    private final String poolName;
+  class Instance implements MicrometerMetrics, PoolMetrics<VertxPoolMetrics.Task> {
+    private final MeterFamily.Bound<Timer> queueDelay;
+    private final MeterFamily.Bound<LongAdder> queueSize;
+    private final MeterFamily.Bound<Timer> usage;
+    private final MeterFamily.Bound<LongAdder> inUse;
+    private final MeterFamily.Bound<AtomicReference<Double>> usageRatio;
+    private final MeterFamily.Bound<Counter> completed;
     private final int maxPoolSize;
 
     Instance(String poolType, String poolName, int maxPoolSize) {
-      this.poolType = poolType;
-      this.poolName = poolName;
+      queueDelay = VertxPoolMetrics.this.queueDelay.bind(poolType, poolName);
+      queueSize = VertxPoolMetrics.this.queueSize.bind(poolType, poolName);
+      usage = VertxPoolMetrics.this.usage.bind(poolType, poolName);
+      inUse = VertxPoolMetrics.this.inUse.bind(poolType, poolName);
+      usageRatio = VertxPoolMetrics.this.usageRatio.bind(poolType, poolName);
+      completed = VertxPoolMetrics.this.completed.bind(poolType, poolName);
       this.maxPoolSize = maxPoolSize;
     }
 
     @Override
-    public Timers.EventTiming submitted() {
-      queueSize.get(poolType, poolName).increment();
-      return queueDelay.start();
+    public Task submitted() {
+      queueSize.get().increment();
+      return new Task(clock.monotonicTime());
     }
 
     @Override
-    public void rejected(Timers.EventTiming submitted) {
-      queueSize.get(poolType, poolName).decrement();
-      submitted.end(poolType, poolName);
+    public void rejected(Task task) {
+      queueSize.get().decrement();
+      queueDelay.get().record(clock.monotonicTime() - task.start, TimeUnit.NANOSECONDS);
     }
 
     @Override
-    public Timers.EventTiming begin(Timers.EventTiming submitted) {
-      queueSize.get(poolType, poolName).decrement();
-      submitted.end(poolType, poolName);
-      LongAdder l = inUse.get(poolType, poolName);
+    public Task begin(Task task) {
+      queueSize.get().decrement();
+      long now = clock.monotonicTime();
+      queueDelay.get().record(now - task.start, TimeUnit.NANOSECONDS);
+      LongAdder l = inUse.get();
       l.increment();
       checkRatio(l.longValue());
-      return usage.start();
+      // The same task goes on with the usage time
+      task.start = now;
+      return task;
     }
 
     @Override
-    public void end(Timers.EventTiming begin, boolean succeeded) {
-      LongAdder l = inUse.get(poolType, poolName);
+    public void end(Task task, boolean succeeded) {
+      LongAdder l = inUse.get();
       l.decrement();
       checkRatio(l.longValue());
-      begin.end(poolType, poolName);
-      completed.get(poolType, poolName).increment();
+      usage.get().record(clock.monotonicTime() - task.start, TimeUnit.NANOSECONDS);
+      completed.get().increment();
     }
 
     @Override
     public void close() {
+      queueDelay.close();
+      queueSize.close();
+      usage.close();
+      inUse.close();
+      usageRatio.close();
+      completed.close();
     }
 
     private void checkRatio(long inUse) {
       if (maxPoolSize > 0) {
-        usageRatio.get(poolType, poolName)
+        usageRatio.get()
           .set((double)inUse / maxPoolSize);
       }
     }
@@ -115,4 +140,15 @@ class VertxPoolMetrics extends AbstractMetrics {
       return domain.getPrefix();
     }
   }
+
+  /**
+   * Start time of a task, first while queued then while running.
+   */
+  public static final class Task {
+    private long start;
+
+    private Task(long start) {
+      this.start = start;
+    }
+  }
 }
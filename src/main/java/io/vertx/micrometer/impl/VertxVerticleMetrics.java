@@ -16,10 +16,14 @@
 
 package io.vertx.micrometer.impl;
 
+import io.micrometer.core.instrument.Clock;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.vertx.core.Verticle;
 import io.vertx.micrometer.Label;
 import io.vertx.micrometer.MetricsDomain;
+import io.vertx.micrometer.MicrometerMetricsOptions;
+import io.vertx.micrometer.impl.meters.AsyncRecorder;
+import io.vertx.micrometer.impl.meters.CompactHistograms;
 import io.vertx.micrometer.impl.meters.Gauges;
 
 import java.util.concurrent.atomic.LongAdder;
@@ -30,8 +34,8 @@ import java.util.concurrent.atomic.LongAdder;
 class VertxVerticleMetrics extends AbstractMetrics {
   private final Gauges<LongAdder> deployed;
 
-  VertxVerticleMetrics(MeterRegistry registry) {
-    super(registry, MetricsDomain.VERTICLES);
+  VertxVerticleMetrics(MeterRegistry registry, MicrometerMetricsOptions options, AsyncRecorder recorder, Clock coarseClock, CompactHistograms compactHistograms) {
+    super(registry, MetricsDomain.VERTICLES, options, recorder, coarseClock, compactHistograms);
     deployed = longGauges("deployed", "Number of verticle instances deployed", Label.CLASS_NAME);
   }
 
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertx.micrometer.impl.meters;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Measurement;
+
+/**
+ * A counter whose increments go through an {@link AsyncRecorder}. Reads are served by the registered counter.
+ *
+ * @author Joel Takvorian
+ */
+final class AsyncCounter implements Counter, AsyncRecorder.Update {
+  private final Counter counter;
+  private final AsyncRecorder recorder;
+
+  AsyncCounter(Counter counter, AsyncRecorder recorder) {
+    this.counter = counter;
+    this.recorder = recorder;
+  }
+
+  @Override
+  public void increment(double amount) {
+    recorder.record(this, Double.doubleToRawLongBits(amount));
+  }
+
+  @Override
+  public void apply(long value) {
+    counter.increment(Double.longBitsToDouble(value));
+  }
+
+  @Override
+  public double count() {
+    return counter.count();
+  }
+
+  @Override
+  public Id getId() {
+    return counter.getId();
+  }
+
+  @Override
+  public Iterable<Measurement> measure() {
+    return counter.measure();
+  }
+}
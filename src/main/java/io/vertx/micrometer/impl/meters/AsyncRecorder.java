@@ -0,0 +1,173 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertx.micrometer.impl.meters;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.vertx.core.impl.logging.Logger;
+import io.vertx.core.impl.logging.LoggerFactory;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Records meter updates asynchronously: callers only enqueue the update into a ring buffer, and a background thread
+ * applies the buffered updates to the meters in batches, at least every {@code maxDelay} milliseconds.
+ * <p>
+ * Each Vert.x event loop thread has its own single-producer buffer. Other threads share one buffer, under its lock.
+ * When a buffer is full, updates are dropped and counted by the {@code vertx.recording.dropped} counter.
+ *
+ * @author Joel Takvorian
+ */
+public final class AsyncRecorder {
+  private static final Logger LOGGER = LoggerFactory.getLogger(AsyncRecorder.class);
+
+  /**
+   * An update waiting to be applied to a meter.
+   */
+  interface Update {
+    void apply(long value);
+  }
+
+  private final int bufferSize;
+  private final AtomicReferenceArray<Buffer> buffers = new AtomicReferenceArray<>(EventLoopIndex.SIZE);
+  private final Buffer shared;
+  private final Counter dropped;
+  private final ScheduledExecutorService drainer;
+
+  /**
+   * @param registry the registry of the dropped updates counter
+   * @param bufferSize the capacity of each buffer, rounded up to a power of two
+   * @param maxDelay the maximum time in milliseconds before an update is applied
+   */
+  public AsyncRecorder(MeterRegistry registry, int bufferSize, long maxDelay) {
+    this.bufferSize = Integer.highestOneBit(Math.max(bufferSize, 2) - 1) << 1;
+    this.shared = new Buffer(this.bufferSize);
+    this.dropped = Counter.builder("vertx.recording.dropped")
+      .description("Number of meter updates dropped because the asynchronous recording buffer was full")
+      .register(registry);
+    this.drainer = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread t = new Thread(r, "vertx-metrics-recorder");
+      t.setDaemon(true);
+      return t;
+    });
+    long period = Math.max(maxDelay, 1);
+    drainer.scheduleWithFixedDelay(this::drain, period, period, TimeUnit.MILLISECONDS);
+  }
+
+  void record(Update update, long value) {
+    int i = EventLoopIndex.get();
+    boolean accepted;
+    if (i < 0) {
+      synchronized (shared) {
+        accepted = shared.offer(update, value);
+      }
+    } else {
+      Buffer b = buffers.get(i);
+      if (b == null) {
+        b = new Buffer(bufferSize);
+        buffers.set(i, b);
+      }
+      accepted = b.offer(update, value);
+    }
+    if (!accepted) {
+      dropped.increment();
+    }
+  }
+
+  /**
+   * Apply all the pending updates. A failing update is logged and skipped: it must neither stop the background thread,
+   * which would cancel the next drains, nor hold back the following updates.
+   */
+  synchronized void drain() {
+    shared.drain();
+    for (int i = 0; i < EventLoopIndex.SIZE; i++) {
+      Buffer b = buffers.get(i);
+      if (b != null) {
+        b.drain();
+      }
+    }
+  }
+
+  /**
+   * Stop the background thread, then apply the remaining updates.
+   */
+  public void close() {
+    drainer.shutdown();
+    try {
+      drainer.awaitTermination(1, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    drain();
+  }
+
+  /**
+   * Single-producer single-consumer ring buffer.
+   */
+  private static final class Buffer {
+    private final Update[] updates;
+    private final long[] values;
+    private final int mask;
+    // Written by the consumer only
+    private final AtomicLong head = new AtomicLong();
+    // Written by the producer only
+    private final AtomicLong tail = new AtomicLong();
+    // Last head seen by the producer, to avoid reading the consumer's counter on every offer
+    private long cachedHead;
+
+    private Buffer(int size) {
+      updates = new Update[size];
+      values = new long[size];
+      mask = size - 1;
+    }
+
+    private boolean offer(Update update, long value) {
+      long t = tail.get();
+      if (t - cachedHead > mask) {
+        cachedHead = head.get();
+        if (t - cachedHead > mask) {
+          return false;
+        }
+      }
+      int i = (int) t & mask;
+      updates[i] = update;
+      values[i] = value;
+      tail.lazySet(t + 1);
+      return true;
+    }
+
+    private void drain() {
+      long h = head.get();
+      long t = tail.get();
+      for (; h < t; h++) {
+        int i = (int) h & mask;
+        Update update = updates[i];
+        updates[i] = null;
+        try {
+          update.apply(values[i]);
+        } catch (Throwable e) {
+          LOGGER.error("Failed to apply a meter update", e);
+        }
+      }
+      head.lazySet(h);
+    }
+  }
+}
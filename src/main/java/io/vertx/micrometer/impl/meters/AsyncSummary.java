@@ -0,0 +1,77 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertx.micrometer.impl.meters;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Measurement;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+
+/**
+ * A distribution summary whose recordings go through an {@link AsyncRecorder}. Reads are served by the registered
+ * summary.
+ *
+ * @author Joel Takvorian
+ */
+final class AsyncSummary implements DistributionSummary, AsyncRecorder.Update {
+  private final DistributionSummary summary;
+  private final AsyncRecorder recorder;
+
+  AsyncSummary(DistributionSummary summary, AsyncRecorder recorder) {
+    this.summary = summary;
+    this.recorder = recorder;
+  }
+
+  @Override
+  public void record(double amount) {
+    recorder.record(this, Double.doubleToRawLongBits(amount));
+  }
+
+  @Override
+  public void apply(long value) {
+    summary.record(Double.longBitsToDouble(value));
+  }
+
+  @Override
+  public long count() {
+    return summary.count();
+  }
+
+  @Override
+  public double totalAmount() {
+    return summary.totalAmount();
+  }
+
+  @Override
+  public double max() {
+    return summary.max();
+  }
+
+  @Override
+  public HistogramSnapshot takeSnapshot() {
+    return summary.takeSnapshot();
+  }
+
+  @Override
+  public Id getId() {
+    return summary.getId();
+  }
+
+  @Override
+  public Iterable<Measurement> measure() {
+    return summary.measure();
+  }
+}
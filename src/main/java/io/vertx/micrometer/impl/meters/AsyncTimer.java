@@ -0,0 +1,115 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertx.micrometer.impl.meters;
+
+import io.micrometer.core.instrument.Measurement;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * A timer whose recordings go through an {@link AsyncRecorder}. Reads are served by the registered timer.
+ *
+ * @author Joel Takvorian
+ */
+final class AsyncTimer implements Timer, AsyncRecorder.Update {
+  private final Timer timer;
+  private final AsyncRecorder recorder;
+
+  AsyncTimer(Timer timer, AsyncRecorder recorder) {
+    this.timer = timer;
+    this.recorder = recorder;
+  }
+
+  @Override
+  public void record(long amount, TimeUnit unit) {
+    recorder.record(this, unit.toNanos(amount));
+  }
+
+  @Override
+  public void apply(long value) {
+    timer.record(value, TimeUnit.NANOSECONDS);
+  }
+
+  @Override
+  public <T> T record(Supplier<T> f) {
+    long start = System.nanoTime();
+    try {
+      return f.get();
+    } finally {
+      record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  @Override
+  public <T> T recordCallable(Callable<T> f) throws Exception {
+    long start = System.nanoTime();
+    try {
+      return f.call();
+    } finally {
+      record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  @Override
+  public void record(Runnable f) {
+    long start = System.nanoTime();
+    try {
+      f.run();
+    } finally {
+      record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  @Override
+  public long count() {
+    return timer.count();
+  }
+
+  @Override
+  public double totalTime(TimeUnit unit) {
+    return timer.totalTime(unit);
+  }
+
+  @Override
+  public double max(TimeUnit unit) {
+    return timer.max(unit);
+  }
+
+  @Override
+  public TimeUnit baseTimeUnit() {
+    return timer.baseTimeUnit();
+  }
+
+  @Override
+  public HistogramSnapshot takeSnapshot() {
+    return timer.takeSnapshot();
+  }
+
+  @Override
+  public Id getId() {
+    return timer.getId();
+  }
+
+  @Override
+  public Iterable<Measurement> measure() {
+    return timer.measure();
+  }
+}
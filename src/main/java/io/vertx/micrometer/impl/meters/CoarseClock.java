@@ -0,0 +1,64 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertx.micrometer.impl.meters;
+
+import io.micrometer.core.instrument.Clock;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A monotonic clock updated periodically by a background thread, so that reading it is a mere volatile read.
+ * Its precision is the update period.
+ *
+ * @author Joel Takvorian
+ */
+public final class CoarseClock implements Clock {
+  private final ScheduledExecutorService ticker;
+  private volatile long monotonicTime = System.nanoTime();
+
+  /**
+   * @param resolution the update period in milliseconds
+   */
+  public CoarseClock(long resolution) {
+    ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread t = new Thread(r, "vertx-metrics-clock");
+      t.setDaemon(true);
+      return t;
+    });
+    long period = Math.max(resolution, 1);
+    ticker.scheduleAtFixedRate(() -> monotonicTime = System.nanoTime(), period, period, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public long wallTime() {
+    return System.currentTimeMillis();
+  }
+
+  @Override
+  public long monotonicTime() {
+    return monotonicTime;
+  }
+
+  /**
+   * Stop updating the clock.
+   */
+  public void close() {
+    ticker.shutdownNow();
+  }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertx.micrometer.impl.meters;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A histogram of durations with fixed log-linear buckets: each power of two is split in {@link #SUB_BUCKETS} linear
+ * buckets, from 1 &micro;s up to about 2 minutes, so that the relative error of a bucket is at most 25%. Durations above
+ * the last bucket are only counted in the {@code +Inf} one.
+ * <p>
+ * Counts are kept in primitive arrays, striped to limit contention: a stripe is only allocated once a thread mapping to
+ * it records a value, so a series used from a single event loop holds a single array of about a kilobyte.
+ *
+ * @author Joel Takvorian
+ */
+public final class CompactHistogram {
+  private static final int SUB_BUCKETS_BITS = 2;
+  /**
+   * Number of linear buckets per power of two
+   */
+  public static final int SUB_BUCKETS = 1 << SUB_BUCKETS_BITS;
+  // Durations up to 2^10 ns = 1.024 us go to the first bucket
+  private static final int MIN_EXPONENT = 10;
+  // Durations above 2^37 ns = 137 s go to the +Inf bucket
+  private static final int MAX_EXPONENT = 36;
+  /**
+   * Number of buckets with a finite upper bound
+   */
+  public static final int BUCKETS = 1 + (MAX_EXPONENT - MIN_EXPONENT + 1) * SUB_BUCKETS;
+  private static final int INF = BUCKETS;
+  private static final int SUM = BUCKETS + 1;
+  private static final int STRIPES = 4;
+
+  private final AtomicReferenceArray<AtomicLongArray> stripes = new AtomicReferenceArray<>(STRIPES);
+
+  /**
+   * @param i the bucket index, lower than {@link #BUCKETS}
+   * @return the inclusive upper bound of the bucket, in nanoseconds
+   */
+  public static long upperBound(int i) {
+    if (i == 0) {
+      return 1L << MIN_EXPONENT;
+    }
+    int exponent = MIN_EXPONENT + (i - 1) / SUB_BUCKETS;
+    int sub = (i - 1) % SUB_BUCKETS;
+    return (long) (SUB_BUCKETS + sub + 1) << (exponent - SUB_BUCKETS_BITS);
+  }
+
+  static int bucket(long nanos) {
+    // Buckets include their upper bound
+    long v = nanos - 1;
+    if (v < 1L << MIN_EXPONENT) {
+      return 0;
+    }
+    int exponent = 63 - Long.numberOfLeadingZeros(v);
+    if (exponent > MAX_EXPONENT) {
+      return INF;
+    }
+    int sub = (int) (v >>> (exponent - SUB_BUCKETS_BITS)) & (SUB_BUCKETS - 1);
+    return 1 + (exponent - MIN_EXPONENT) * SUB_BUCKETS + sub;
+  }
+
+  public void record(long nanos) {
+    if (nanos < 0) {
+      return;
+    }
+    AtomicLongArray stripe = stripe();
+    stripe.incrementAndGet(bucket(nanos));
+    stripe.addAndGet(SUM, nanos);
+  }
+
+  private AtomicLongArray stripe() {
+    int i = EventLoopIndex.get();
+    if (i < 0) {
+      i = (int) Thread.currentThread().getId();
+    }
+    i &= STRIPES - 1;
+    AtomicLongArray stripe = stripes.get(i);
+    if (stripe == null) {
+      stripes.compareAndSet(i, null, new AtomicLongArray(SUM + 1));
+      stripe = stripes.get(i);
+    }
+    return stripe;
+  }
+
+  /**
+   * @return the count of each bucket (not cumulative), the last one being the {@code +Inf} bucket
+   */
+  public long[] counts() {
+    long[] counts = new long[BUCKETS + 1];
+    for (int s = 0; s < STRIPES; s++) {
+      AtomicLongArray stripe = stripes.get(s);
+      if (stripe != null) {
+        for (int i = 0; i <= INF; i++) {
+          counts[i] += stripe.get(i);
+        }
+      }
+    }
+    return counts;
+  }
+
+  public long count() {
+    long count = 0;
+    for (long c : counts()) {
+      count += c;
+    }
+    return count;
+  }
+
+  public long totalNanos() {
+    long total = 0;
+    for (int s = 0; s < STRIPES; s++) {
+      AtomicLongArray stripe = stripes.get(s);
+      if (stripe != null) {
+        total += stripe.get(SUM);
+      }
+    }
+    return total;
+  }
+
+  /**
+   * Estimate a percentile, interpolating linearly within the bucket where it falls.
+   *
+   * @param counts the bucket counts, as returned by {@link #counts()}
+   * @param percentile the percentile, between 0 and 1
+   * @return the estimated value in nanoseconds, or 0 if there is no value
+   */
+  public static double percentile(long[] counts, double percentile) {
+    long count = 0;
+    for (long c : counts) {
+      count += c;
+    }
+    if (count == 0) {
+      return 0;
+    }
+    double rank = percentile * count;
+    long cumulative = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      if (counts[i] > 0 && cumulative + counts[i] >= rank) {
+        double lower = i == 0 ? 0 : upperBound(i - 1);
+        return lower + (upperBound(i) - lower) * (rank - cumulative) / counts[i];
+      }
+      cumulative += counts[i];
+    }
+    // Within the +Inf bucket, the best estimate is the last finite bound
+    return upperBound(BUCKETS - 1);
+  }
+}
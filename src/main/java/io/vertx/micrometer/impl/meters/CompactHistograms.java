@@ -0,0 +1,49 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertx.micrometer.impl.meters;
+
+import io.micrometer.core.instrument.Meter;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
+
+/**
+ * The {@link CompactHistogram}s of a registry, by ID of the meter they back. The backends publishing their buckets keep
+ * the instance of their registry, and hand it to the timers.
+ *
+ * @author Joel Takvorian
+ */
+public final class CompactHistograms {
+  private final ConcurrentMap<Meter.Id, CompactHistogram> histograms = new ConcurrentHashMap<>();
+
+  void add(Meter.Id id, CompactHistogram histogram) {
+    histograms.put(id, histogram);
+  }
+
+  CompactHistogram get(Meter.Id id) {
+    return histograms.get(id);
+  }
+
+  void remove(Meter.Id id) {
+    histograms.remove(id);
+  }
+
+  public void forEach(BiConsumer<Meter.Id, CompactHistogram> action) {
+    histograms.forEach(action);
+  }
+}
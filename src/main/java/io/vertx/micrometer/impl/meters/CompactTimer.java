@@ -0,0 +1,119 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertx.micrometer.impl.meters;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.CountAtBucket;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * A timer recording into a {@link CompactHistogram}, registered as a {@link io.micrometer.core.instrument.FunctionTimer}
+ * for its count and total time. Buckets are published by the backends supporting it, and percentiles are estimated in
+ * the snapshots taken from the timer. There is no maximum.
+ *
+ * @author Joel Takvorian
+ */
+final class CompactTimer implements Timer {
+  private static final double[] PERCENTILES = {0.5, 0.75, 0.95, 0.99};
+
+  final CompactHistogram histogram = new CompactHistogram();
+  // Set once the backing meter is registered
+  volatile Meter.Id id;
+
+  @Override
+  public void record(long amount, TimeUnit unit) {
+    histogram.record(unit.toNanos(amount));
+  }
+
+  @Override
+  public <T> T record(Supplier<T> f) {
+    long start = System.nanoTime();
+    try {
+      return f.get();
+    } finally {
+      record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  @Override
+  public <T> T recordCallable(Callable<T> f) throws Exception {
+    long start = System.nanoTime();
+    try {
+      return f.call();
+    } finally {
+      record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  @Override
+  public void record(Runnable f) {
+    long start = System.nanoTime();
+    try {
+      f.run();
+    } finally {
+      record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  @Override
+  public long count() {
+    return histogram.count();
+  }
+
+  @Override
+  public double totalTime(TimeUnit unit) {
+    return (double) histogram.totalNanos() / unit.toNanos(1);
+  }
+
+  @Override
+  public double max(TimeUnit unit) {
+    return 0;
+  }
+
+  @Override
+  public TimeUnit baseTimeUnit() {
+    return TimeUnit.NANOSECONDS;
+  }
+
+  @Override
+  public HistogramSnapshot takeSnapshot() {
+    long[] counts = histogram.counts();
+    long count = 0;
+    CountAtBucket[] buckets = new CountAtBucket[CompactHistogram.BUCKETS];
+    for (int i = 0; i < CompactHistogram.BUCKETS; i++) {
+      count += counts[i];
+      buckets[i] = new CountAtBucket(CompactHistogram.upperBound(i), count);
+    }
+    count += counts[CompactHistogram.BUCKETS];
+    ValueAtPercentile[] percentiles = new ValueAtPercentile[PERCENTILES.length];
+    for (int i = 0; i < PERCENTILES.length; i++) {
+      percentiles[i] = new ValueAtPercentile(PERCENTILES[i], CompactHistogram.percentile(counts, PERCENTILES[i]));
+    }
+    return new HistogramSnapshot(count, histogram.totalNanos(), 0, percentiles, buckets, null);
+  }
+
+  @Override
+  public Id getId() {
+    return id;
+  }
+}
@@ -17,34 +17,72 @@
 package io.vertx.micrometer.impl.meters;
 
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.vertx.micrometer.Label;
-import io.vertx.micrometer.impl.Labels;
+
+import java.util.EnumSet;
+import java.util.Set;
 
 /**
  * @author Joel Takvorian
  */
-public class Counters {
-  private final String name;
-  private final String description;
-  private final Label[] keys;
-  private final MeterRegistry registry;
+public class Counters extends MeterFamily<Counter> {
+  private final boolean sharded;
+  private final AsyncRecorder recorder;
 
   public Counters(String name,
                   String description,
                   MeterRegistry registry,
                   Label... keys) {
-    this.name = name;
-    this.description = description;
-    this.registry = registry;
-    this.keys = keys;
+    this(name, description, registry, EnumSet.allOf(Label.class), 0, keys);
+  }
+
+  public Counters(String name,
+                  String description,
+                  MeterRegistry registry,
+                  Set<Label> enabledLabels,
+                  int maxSeries,
+                  Label... keys) {
+    this(name, description, registry, enabledLabels, maxSeries, false, null, keys);
+  }
+
+  public Counters(String name,
+                  String description,
+                  MeterRegistry registry,
+                  Set<Label> enabledLabels,
+                  int maxSeries,
+                  boolean sharded,
+                  AsyncRecorder recorder,
+                  Label... keys) {
+    super(name, description, registry, enabledLabels, maxSeries, keys);
+    this.sharded = sharded;
+    this.recorder = recorder;
   }
 
   public Counter get(String... values) {
-    // Get or create the Counter
-    return Counter.builder(name)
+    return lookup(values);
+  }
+
+  @Override
+  Series<Counter> create(String[] values) {
+    if (sharded) {
+      ShardedCounter c = new ShardedCounter();
+      FunctionCounter m = FunctionCounter.builder(name, c, ShardedCounter::count)
+        .description(description)
+        .tags(tags(values))
+        .register(registry);
+      c.id = m.getId();
+      return series(m, async(c));
+    }
+    Counter m = Counter.builder(name)
       .description(description)
-      .tags(Labels.toTags(keys, values))
+      .tags(tags(values))
       .register(registry);
+    return series(m, async(m));
+  }
+
+  private Counter async(Counter c) {
+    return recorder == null ? c : new AsyncCounter(c, recorder);
   }
 }
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertx.micrometer.impl.meters;
+
+import io.netty.util.concurrent.FastThreadLocal;
+import io.vertx.core.Context;
+import io.vertx.core.VertxOptions;
+
+import java.util.BitSet;
+
+/**
+ * Index of the current Vert.x event loop thread, used to give each event loop its own single-writer structures.
+ * Indexes are assigned once per thread, up to {@link #SIZE} event loops at a time: the index of an event loop is
+ * reclaimed when its thread terminates (e.g. when its Vert.x instance is closed), and then reused by a new one along
+ * with its shards.
+ *
+ * @author Joel Takvorian
+ */
+final class EventLoopIndex {
+  static final int SIZE = VertxOptions.DEFAULT_EVENT_LOOP_POOL_SIZE;
+  // Guarded by itself
+  private static final BitSet used = new BitSet(SIZE);
+  private static final FastThreadLocal<Integer> index = new FastThreadLocal<Integer>() {
+    @Override
+    protected Integer initialValue() {
+      if (Context.isOnEventLoopThread()) {
+        synchronized (used) {
+          int i = used.nextClearBit(0);
+          if (i < SIZE) {
+            used.set(i);
+            return i;
+          }
+        }
+      }
+      return -1;
+    }
+
+    @Override
+    protected void onRemoval(Integer i) {
+      // Called by Netty when the event loop thread terminates, once it no longer records anything
+      if (i >= 0) {
+        synchronized (used) {
+          used.clear(i);
+        }
+      }
+    }
+  };
+
+  private EventLoopIndex() {
+  }
+
+  /**
+   * @return the index of the current event loop thread, or -1 for other threads and event loops beyond {@link #SIZE}
+   */
+  static int get() {
+    return index.get();
+  }
+}
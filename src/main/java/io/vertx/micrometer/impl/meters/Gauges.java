@@ -17,27 +17,21 @@
 package io.vertx.micrometer.impl.meters;
 
 import io.micrometer.core.instrument.Gauge;
-import io.micrometer.core.instrument.Meter;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.vertx.micrometer.Label;
-import io.vertx.micrometer.impl.Labels;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
 import java.util.function.ToDoubleFunction;
 
 /**
  * @author Joel Takvorian
  */
-public class Gauges<T> {
-  private final String name;
-  private final String description;
-  private final Label[] keys;
+public class Gauges<T> extends MeterFamily<T> {
   private final Supplier<T> tSupplier;
   private final ToDoubleFunction<T> dGetter;
-  private final MeterRegistry registry;
-  private final Map<Meter.Id, T> gauges = new ConcurrentHashMap<>();
 
   public Gauges(String name,
                 String description,
@@ -45,26 +39,59 @@ public class Gauges<T> {
                 ToDoubleFunction<T> dGetter,
                 MeterRegistry registry,
                 Label... keys) {
-    this.name = name;
-    this.description = description;
+    this(name, description, tSupplier, dGetter, registry, EnumSet.allOf(Label.class), 0, keys);
+  }
+
+  public Gauges(String name,
+                String description,
+                Supplier<T> tSupplier,
+                ToDoubleFunction<T> dGetter,
+                MeterRegistry registry,
+                Set<Label> enabledLabels,
+                int maxSeries,
+                Label... keys) {
+    super(name, description, registry, enabledLabels, maxSeries, keys);
     this.tSupplier = tSupplier;
     this.dGetter = dGetter;
-    this.registry = registry;
-    this.keys = keys;
   }
 
-  public synchronized T get(String... values) {
-    // This method is synchronized to make sure the "T" built via supplier will match the one passed to Gauge
-    //  since it is stored as WeakReference in Micrometer DefaultGauge, it must not be lost.
-    T t = tSupplier.get();
-    // Register this gauge if necessary
-    // Note: we need here to go through the process of Gauge creation, even if it already exists,
-    //  in order to get the Gauge ID. This ID generation is not trivial since it may involves attached MetricFilters.
-    //  Micrometer will not register the gauge twice if it was already created.
-    Gauge g = Gauge.builder(name, t, dGetter)
-      .description(description)
-      .tags(Labels.toTags(keys, values))
-      .register(registry);
-    return gauges.computeIfAbsent(g.getId(), v -> t);
+  public T get(String... values) {
+    // Once a gauge exists for these values, its "T" is served from the cache without locking
+    return lookup(values);
+  }
+
+  @Override
+  Series<T> create(String[] values) {
+    // Only gauge creation is synchronized, to make sure the "T" built via supplier will match the one passed to Gauge
+    //  since it is stored as WeakReference in Micrometer DefaultGauge, it must not be lost: the strong reference is kept in the series.
+    // Note: different label values may end up on the same Gauge ID (e.g. when aliased by a Match), so we need here to go
+    //  through the process of Gauge creation in order to get the Gauge ID. This ID generation is not trivial since it may
+    //  involves attached MetricFilters. Micrometer will not register the gauge twice if it was already created.
+    synchronized (this) {
+      T t = tSupplier.get();
+      AtomicReference<Series<T>> holder = new AtomicReference<>();
+      Gauge g = Gauge.builder(name, t, v -> read(v, holder.get()))
+        .description(description)
+        .tags(tags(values))
+        .register(registry);
+      Series<T> s = series(g, t);
+      holder.set(s);
+      return s;
+    }
+  }
+
+  private double read(T value, Series<T> s) {
+    double d = dGetter.applyAsDouble(value);
+    if (d == 0) {
+      // Gauges released while in use are removed once back to zero
+      readIdle(s);
+    }
+    return d;
+  }
+
+  @Override
+  boolean isIdle(T value) {
+    // Gauges are only dropped when back to zero, e.g. once all connections to a remote are closed
+    return dGetter.applyAsDouble(value) == 0;
   }
 }
@@ -0,0 +1,466 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertx.micrometer.impl.meters;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.vertx.micrometer.Label;
+import io.vertx.micrometer.impl.Labels;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+/**
+ * Base class for a family of meters sharing the same name and label keys.
+ * Meters are resolved through the registry only once per set of label values, then served from a local cache.
+ * Values of disabled labels are ignored: they are neither part of the cache key nor turned into tags,
+ * so callers may pass {@code null} instead of computing them.
+ * <p>
+ * When a maximum number of series is set, label values beyond that limit are collapsed into a single series where
+ * every label has the {@link #OVERFLOW} value. The limit applies to label values as provided by Vert.x, before any
+ * label matcher aliasing, so that the family cache is bounded as well.
+ * <p>
+ * Series not used between two calls to {@link #evictIdle()} are removed from the family and from the registry, even
+ * when held by a {@link Bound} family, so that idle remote addresses of a long-lived server or client do not pile up.
+ * A series used again after its eviction is registered again, its value starting over: counters are then reset, as
+ * they would be by a restart. Series obtained through a {@link Bound} family are also removed once all the bound
+ * families using them are closed, as long as they are idle. Gauges not back to zero at that time are removed once read
+ * at zero (e.g. by a scrape), provided they have not been used since they were released or since the previous read.
+ * <p>
+ * Meters are only removed from the registry by the family that registered them: when the registry is shared (e.g. by
+ * several Vert.x instances), a family may get meters already registered by another one, which it leaves in place.
+ *
+ * @author Joel Takvorian
+ */
+public abstract class MeterFamily<V> {
+  /**
+   * Label value of the series collecting all values beyond the maximum number of series
+   */
+  public static final String OVERFLOW = "__overflow__";
+  /**
+   * Name suffix of the meter providing the exact count, total and maximum of a sampled timer or summary
+   */
+  public static final String EXACT_SUFFIX = ".exact";
+
+  final String name;
+  final String description;
+  final MeterRegistry registry;
+  private final Label[] keys;
+  private final int[] enabledIndexes;
+  private final int maxSeries;
+  private final ConcurrentMap<MeterKey, Series<V>> cache = new ConcurrentHashMap<>();
+  // Several label values may end up on the same meter (e.g. when aliased by a Match): series are shared by meter ID
+  private final ConcurrentMap<Meter.Id, Series<V>> series = new ConcurrentHashMap<>();
+  private final Set<Bound<V>> bounds = ConcurrentHashMap.newKeySet();
+  private volatile int epoch;
+  private volatile Series<V> overflow;
+  private volatile Counter overflowCount;
+  // IDs of the meters added to the registry by the current thread while this family creates a series
+  private final ThreadLocal<Set<Meter.Id>> registering = new ThreadLocal<>();
+
+  MeterFamily(String name, String description, MeterRegistry registry, Set<Label> enabledLabels, int maxSeries, Label... keys) {
+    this.name = name;
+    this.description = description;
+    this.registry = registry;
+    this.keys = keys;
+    this.enabledIndexes = enabledIndexes(keys, enabledLabels);
+    this.maxSeries = maxSeries;
+    registry.config().onMeterAdded(meter -> {
+      Set<Meter.Id> added = registering.get();
+      if (added != null) {
+        added.add(meter.getId());
+      }
+    });
+  }
+
+  /**
+   * Bind the first label values of this family, typically the ones known when a server or client is created.
+   * Only the remaining values need then to be provided at lookup time.
+   *
+   * @param values the first label values
+   * @return the bound family
+   */
+  public Bound<V> bind(String... values) {
+    Bound<V> bound = new Bound<>(this, values);
+    bounds.add(bound);
+    return bound;
+  }
+
+  V lookup(String[] values) {
+    return resolve(values).value;
+  }
+
+  private Series<V> resolve(String[] values) {
+    MeterKey key = new MeterKey(values, enabledIndexes);
+    while (true) {
+      Series<V> s = cache.get(key);
+      if (s == null || s.removed) {
+        if (maxSeries > 0 && cache.size() >= maxSeries) {
+          // Not cached, so that the cache remains bounded
+          return overflow();
+        }
+        // Slow path: go through the builder, which runs the meter filters and the registry lookup
+        s = cache.compute(key, (k, old) -> old == null || old.removed ? register(values) : old);
+      }
+      if (touch(s)) {
+        return s;
+      }
+    }
+  }
+
+  /**
+   * Mark the series as used in the current period.
+   *
+   * @return false if the series has been evicted meanwhile, in which case it must be resolved again
+   */
+  private boolean touch(Series<V> s) {
+    int current = epoch;
+    if (s.epoch != current) {
+      s.epoch = current;
+    }
+    if (s.detached) {
+      s.lateUses.incrementAndGet();
+    }
+    // Checked after writing the epoch, while the eviction checks the epoch after marking the series removed: at least
+    // one of them sees the other, so that a value is never recorded into an evicted series
+    return !s.removed;
+  }
+
+  private Series<V> overflow() {
+    Counter count = overflowCount;
+    if (count == null) {
+      count = Counter.builder("vertx.series.overflow")
+        .description("Number of lookups collapsed into the overflow series, once a meter reached its maximum number of series")
+        .tag("meter", name)
+        .register(registry);
+      overflowCount = count;
+    }
+    count.increment();
+    while (true) {
+      Series<V> s = overflow;
+      if (s == null || s.removed) {
+        synchronized (this) {
+          s = overflow;
+          if (s == null || s.removed) {
+            String[] values = new String[keys.length];
+            Arrays.fill(values, OVERFLOW);
+            s = register(values);
+            overflow = s;
+          }
+        }
+      }
+      if (touch(s)) {
+        return s;
+      }
+    }
+  }
+
+  private Series<V> register(String[] values) {
+    registering.set(new HashSet<>());
+    try {
+      return create(values);
+    } finally {
+      registering.remove();
+    }
+  }
+
+  /**
+   * Register the meter for these label values.
+   *
+   * @return the series, obtained through {@link #series(Meter, Object)}
+   */
+  abstract Series<V> create(String[] values);
+
+  Series<V> series(Meter meter, V value) {
+    return series(meter, value, null);
+  }
+
+  /**
+   * @param companion another meter backing the value, removed along with the series
+   */
+  Series<V> series(Meter meter, V value, Meter companion) {
+    Set<Meter.Id> added = registering.get();
+    boolean owned = added != null && added.contains(meter.getId());
+    Meter ownedCompanion = companion != null && added != null && added.contains(companion.getId()) ? companion : null;
+    return series.computeIfAbsent(meter.getId(), id -> new Series<>(meter, value, owned, ownedCompanion, epoch));
+  }
+
+  /**
+   * Called once the meter of a series has been removed from the registry.
+   */
+  void removed(Meter meter) {
+  }
+
+  /**
+   * @return true if this value can be dropped when idle
+   */
+  boolean isIdle(V value) {
+    return true;
+  }
+
+  /**
+   * Remove the series that have not been used since the previous call, from this family and from the registry.
+   * This is meant to be called periodically, the period being the minimum idle time before eviction.
+   */
+  public void evictIdle() {
+    int current = epoch;
+    series.values().removeIf(s -> s.epoch != current && isIdle(s.value) && evict(s, current));
+    purgeRemoved();
+    epoch = current + 1;
+  }
+
+  private boolean evict(Series<V> s, int current) {
+    s.removed = true;
+    // A lookup may have resolved the series before it was marked removed: it has then touched it, and the series is
+    // kept. Otherwise, the lookup sees the series removed and resolves a new one. This matters for gauges, whose
+    // increments and decrements must go to the same series. Only a lookup stalled for a whole eviction period between
+    // resolving a series and recording into it could still miss the eviction.
+    if (s.epoch == current || !isIdle(s.value)) {
+      s.removed = false;
+      return false;
+    }
+    return remove(s);
+  }
+
+  /**
+   * Remove all the series of this family, from the registry as well.
+   */
+  public void removeAll() {
+    series.values().removeIf(this::remove);
+    purgeRemoved();
+  }
+
+  private boolean remove(Series<V> s) {
+    s.removed = true;
+    if (s.companion != null) {
+      registry.remove(s.companion);
+    }
+    if (s.owned) {
+      registry.remove(s.meter);
+      removed(s.meter);
+    }
+    return true;
+  }
+
+  private void hold(Series<V> s) {
+    s.refs.incrementAndGet();
+    s.detached = false;
+  }
+
+  private void release(Series<V> s) {
+    if (s.refs.decrementAndGet() == 0 && !s.removed) {
+      if (isIdle(s.value)) {
+        series.remove(s.meter.getId(), s);
+        remove(s);
+      } else {
+        // Gauges still in use (e.g. connections not closed yet) are kept until they are back to zero
+        synchronized (s) {
+          s.sweptUses = s.lateUses.get();
+          s.detached = true;
+        }
+      }
+    }
+  }
+
+  /**
+   * Called when the value of a series is read at zero: a series released by all its bound families while in use is
+   * removed, unless it has been used since the previous read.
+   */
+  void readIdle(Series<V> s) {
+    if (s == null || !s.detached) {
+      return;
+    }
+    synchronized (s) {
+      if (!s.detached || s.removed || s.refs.get() > 0) {
+        return;
+      }
+      int uses = s.lateUses.get();
+      if (uses != s.sweptUses) {
+        // A late update may not be recorded yet: wait for the next read
+        s.sweptUses = uses;
+        return;
+      }
+      s.removed = true;
+      // Same protocol as the eviction: lookups and bound families write, then check whether the series is removed
+      if (s.lateUses.get() != uses || s.refs.get() > 0 || !isIdle(s.value)) {
+        s.removed = false;
+        return;
+      }
+    }
+    series.remove(s.meter.getId(), s);
+    remove(s);
+    purgeRemoved();
+  }
+
+  private void purgeRemoved() {
+    cache.values().removeIf(s -> s.removed);
+    bounds.forEach(Bound::purgeRemoved);
+  }
+
+  List<Tag> tags(String[] values) {
+    Label[] enabledKeys = new Label[enabledIndexes.length];
+    String[] enabledValues = new String[enabledIndexes.length];
+    for (int i = 0; i < enabledIndexes.length; i++) {
+      enabledKeys[i] = keys[enabledIndexes[i]];
+      enabledValues[i] = values[enabledIndexes[i]];
+    }
+    return Labels.toTags(enabledKeys, enabledValues);
+  }
+
+  private static int[] enabledIndexes(Label[] keys, Set<Label> enabledLabels) {
+    return IntStream.range(0, keys.length)
+      .filter(i -> enabledLabels.contains(keys[i]))
+      .toArray();
+  }
+
+  /**
+   * A registered meter along with the value handed out to callers (the meter itself, a meter recording into it, or the object
+   * backing a gauge).
+   */
+  static final class Series<V> {
+    private final Meter meter;
+    private final V value;
+    // Whether this family registered the meter
+    private final boolean owned;
+    // Another meter backing the value, if registered by this family
+    private final Meter companion;
+    // Number of bound families holding this series
+    private final AtomicInteger refs = new AtomicInteger();
+    // Lookups of a series released while in use, and their number at the previous read
+    private final AtomicInteger lateUses = new AtomicInteger();
+    private int sweptUses;
+    private volatile int epoch;
+    private volatile boolean removed;
+    private volatile boolean detached;
+
+    private Series(Meter meter, V value, boolean owned, Meter companion, int epoch) {
+      this.meter = meter;
+      this.value = value;
+      this.owned = owned;
+      this.companion = companion;
+      this.epoch = epoch;
+    }
+  }
+
+  /**
+   * A meter family with its first label values bound.
+   * When none of the remaining labels is enabled, the single resulting meter is held directly.
+   * Once closed, lookups are still served (e.g. late callbacks of connections closed after their server) but the
+   * series are not held anymore.
+   */
+  public static final class Bound<V> {
+    private final MeterFamily<V> family;
+    private final String[] boundValues;
+    private final int[] enabledIndexes;
+    private final ConcurrentMap<MeterKey, Series<V>> cache = new ConcurrentHashMap<>();
+    private final AtomicReference<Series<V>> single = new AtomicReference<>();
+    // Guarded by this bound family, as are the series it holds
+    private boolean closed;
+
+    private Bound(MeterFamily<V> family, String[] boundValues) {
+      this.family = family;
+      this.boundValues = boundValues;
+      // Positions of the enabled labels among the remaining ones
+      this.enabledIndexes = Arrays.stream(family.enabledIndexes)
+        .filter(i -> i >= boundValues.length)
+        .map(i -> i - boundValues.length)
+        .toArray();
+    }
+
+    public V get(String... values) {
+      MeterKey key = null;
+      if (enabledIndexes.length == 0) {
+        // Remaining labels are disabled, whatever their values they resolve to the same meter
+        Series<V> s = single.get();
+        if (s != null && !s.removed && family.touch(s)) {
+          return s.value;
+        }
+      } else {
+        key = new MeterKey(values, enabledIndexes);
+        Series<V> s = cache.get(key);
+        if (s != null && !s.removed && family.touch(s)) {
+          return s.value;
+        }
+      }
+      String[] all = allValues(values);
+      while (true) {
+        Series<V> s = family.resolve(all);
+        // The overflow series is shared by the whole family: neither held nor released by a bound family
+        if (s == family.overflow) {
+          return s.value;
+        }
+        synchronized (this) {
+          if (closed) {
+            // Late lookup (e.g. a connection closed after its server): served, but nobody would release the series
+            return s.value;
+          }
+          if (key == null ? single.getAndSet(s) != s : cache.put(key, s) != s) {
+            family.hold(s);
+          }
+        }
+        if (!s.removed) {
+          return s.value;
+        }
+      }
+    }
+
+    /**
+     * Release the series used through this bound family: those not used by another bound family are removed,
+     * except gauges not back to zero yet.
+     */
+    public void close() {
+      Series<V> s;
+      List<Series<V>> held;
+      synchronized (this) {
+        closed = true;
+        s = single.getAndSet(null);
+        held = new ArrayList<>(cache.values());
+        cache.clear();
+      }
+      family.bounds.remove(this);
+      if (s != null) {
+        family.release(s);
+      }
+      held.forEach(family::release);
+      family.purgeRemoved();
+    }
+
+    private void purgeRemoved() {
+      cache.values().removeIf(s -> s.removed);
+      Series<V> s = single.get();
+      if (s != null && s.removed) {
+        single.compareAndSet(s, null);
+      }
+    }
+
+    private String[] allValues(String[] values) {
+      String[] all = Arrays.copyOf(boundValues, boundValues.length + values.length);
+      System.arraycopy(values, 0, all, boundValues.length, values.length);
+      return all;
+    }
+  }
+}
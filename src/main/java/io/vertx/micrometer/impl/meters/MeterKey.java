@@ -0,0 +1,62 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertx.micrometer.impl.meters;
+
+import java.util.Objects;
+
+/**
+ * Lookup key made of raw label values, used to find an already registered meter without building its tags.
+ * Only the values at the given indexes (those of enabled labels) are considered. The hash is computed once at creation.
+ *
+ * @author Joel Takvorian
+ */
+final class MeterKey {
+  private final String[] values;
+  private final int[] indexes;
+  private final int hash;
+
+  MeterKey(String[] values, int[] indexes) {
+    this.values = values;
+    this.indexes = indexes;
+    int h = 1;
+    for (int i : indexes) {
+      h = 31 * h + Objects.hashCode(values[i]);
+    }
+    this.hash = h;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    MeterKey other = (MeterKey) o;
+    if (hash != other.hash) {
+      return false;
+    }
+    for (int i : indexes) {
+      if (!Objects.equals(values[i], other.values[i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+}
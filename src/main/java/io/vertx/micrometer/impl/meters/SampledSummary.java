@@ -0,0 +1,86 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertx.micrometer.impl.meters;
+
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.TimeWindowMax;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A distribution summary keeping an exact count, total and maximum, registered as a custom meter, while only a random
+ * sample of the values is recorded into the distribution summary.
+ *
+ * @author Joel Takvorian
+ */
+final class SampledSummary implements DistributionSummary {
+  private final LongAdder count = new LongAdder();
+  private final DoubleAdder total = new DoubleAdder();
+  private final TimeWindowMax max;
+  private final double rate;
+  // Set once the meters are registered
+  volatile Id id;
+  volatile DistributionSummary distribution;
+
+  SampledSummary(double rate, Clock clock) {
+    this.rate = rate;
+    this.max = new TimeWindowMax(clock, DistributionStatisticConfig.DEFAULT);
+  }
+
+  @Override
+  public void record(double amount) {
+    if (amount < 0) {
+      return;
+    }
+    count.increment();
+    total.add(amount);
+    max.record(amount);
+    if (ThreadLocalRandom.current().nextDouble() < rate) {
+      distribution.record(amount);
+    }
+  }
+
+  @Override
+  public long count() {
+    return count.sum();
+  }
+
+  @Override
+  public double totalAmount() {
+    return total.sum();
+  }
+
+  @Override
+  public double max() {
+    return max.poll();
+  }
+
+  @Override
+  public HistogramSnapshot takeSnapshot() {
+    return distribution.takeSnapshot();
+  }
+
+  @Override
+  public Id getId() {
+    return id;
+  }
+}
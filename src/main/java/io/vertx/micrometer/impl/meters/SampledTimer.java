@@ -0,0 +1,124 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertx.micrometer.impl.meters;
+
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.TimeWindowMax;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * A timer keeping an exact count, total time and maximum, registered as a custom meter, while only a random sample of
+ * the values is recorded into the distribution timer.
+ *
+ * @author Joel Takvorian
+ */
+final class SampledTimer implements Timer {
+  private final LongAdder count = new LongAdder();
+  private final LongAdder totalNanos = new LongAdder();
+  private final TimeWindowMax max;
+  private final double rate;
+  // Set once the meters are registered
+  volatile Id id;
+  volatile Timer distribution;
+
+  SampledTimer(double rate, Clock clock) {
+    this.rate = rate;
+    this.max = new TimeWindowMax(clock, DistributionStatisticConfig.DEFAULT);
+  }
+
+  @Override
+  public void record(long amount, TimeUnit unit) {
+    long nanos = unit.toNanos(amount);
+    if (nanos < 0) {
+      return;
+    }
+    count.increment();
+    totalNanos.add(nanos);
+    max.record(nanos, TimeUnit.NANOSECONDS);
+    if (ThreadLocalRandom.current().nextDouble() < rate) {
+      distribution.record(nanos, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  @Override
+  public <T> T record(Supplier<T> f) {
+    long start = System.nanoTime();
+    try {
+      return f.get();
+    } finally {
+      record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  @Override
+  public <T> T recordCallable(Callable<T> f) throws Exception {
+    long start = System.nanoTime();
+    try {
+      return f.call();
+    } finally {
+      record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  @Override
+  public void record(Runnable f) {
+    long start = System.nanoTime();
+    try {
+      f.run();
+    } finally {
+      record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  @Override
+  public long count() {
+    return count.sum();
+  }
+
+  @Override
+  public double totalTime(TimeUnit unit) {
+    return (double) totalNanos.sum() / unit.toNanos(1);
+  }
+
+  @Override
+  public double max(TimeUnit unit) {
+    return max.poll(unit);
+  }
+
+  @Override
+  public TimeUnit baseTimeUnit() {
+    return TimeUnit.NANOSECONDS;
+  }
+
+  @Override
+  public HistogramSnapshot takeSnapshot() {
+    return distribution.takeSnapshot();
+  }
+
+  @Override
+  public Id getId() {
+    return id;
+  }
+}
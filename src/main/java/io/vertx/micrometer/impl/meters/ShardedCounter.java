@@ -0,0 +1,72 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertx.micrometer.impl.meters;
+
+import io.micrometer.core.instrument.Counter;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * A counter recording into per event loop shards, registered as a {@link io.micrometer.core.instrument.FunctionCounter}
+ * summing them.
+ *
+ * @author Joel Takvorian
+ */
+final class ShardedCounter extends Shards<ShardedCounter.Cell> implements Counter {
+
+  ShardedCounter() {
+    super(new Cell());
+  }
+
+  @Override
+  Cell newShard() {
+    return new Cell();
+  }
+
+  @Override
+  public void increment(double amount) {
+    Cell c = shard();
+    if (isShared(c)) {
+      synchronized (c) {
+        c.add(amount);
+      }
+    } else {
+      c.add(amount);
+    }
+  }
+
+  @Override
+  public double count() {
+    return sum(Cell::count);
+  }
+
+  static final class Cell {
+    private static final AtomicLongFieldUpdater<Cell> COUNT = AtomicLongFieldUpdater.newUpdater(Cell.class, "count");
+
+    // Raw bits of the double count, only written with ordered stores
+    private volatile long count;
+
+    // Single writer: either the owning event loop, or any thread holding the lock of the shared cell
+    private void add(double amount) {
+      COUNT.lazySet(this, Double.doubleToRawLongBits(Double.longBitsToDouble(count) + amount));
+    }
+
+    private double count() {
+      return Double.longBitsToDouble(count);
+    }
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertx.micrometer.impl.meters;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * A distribution summary recording into per event loop shards, registered as a custom meter exposing the count and
+ * total of all shards. There is no maximum nor histogram.
+ *
+ * @author Joel Takvorian
+ */
+final class ShardedSummary extends Shards<ShardedSummary.Cell> implements DistributionSummary {
+
+  ShardedSummary() {
+    super(new Cell());
+  }
+
+  @Override
+  Cell newShard() {
+    return new Cell();
+  }
+
+  @Override
+  public void record(double amount) {
+    if (amount < 0) {
+      return;
+    }
+    Cell c = shard();
+    if (isShared(c)) {
+      synchronized (c) {
+        c.record(amount);
+      }
+    } else {
+      c.record(amount);
+    }
+  }
+
+  @Override
+  public long count() {
+    return sumLong(c -> c.count);
+  }
+
+  @Override
+  public double totalAmount() {
+    return sum(Cell::total);
+  }
+
+  @Override
+  public double max() {
+    return 0;
+  }
+
+  @Override
+  public HistogramSnapshot takeSnapshot() {
+    return HistogramSnapshot.empty(count(), totalAmount(), 0);
+  }
+
+  static final class Cell {
+    private static final AtomicLongFieldUpdater<Cell> COUNT = AtomicLongFieldUpdater.newUpdater(Cell.class, "count");
+    private static final AtomicLongFieldUpdater<Cell> TOTAL = AtomicLongFieldUpdater.newUpdater(Cell.class, "total");
+
+    // Only written with ordered stores, no fence on the hot path
+    private volatile long count;
+    // Raw bits of the double total
+    private volatile long total;
+
+    // Single writer: either the owning event loop, or any thread holding the lock of the shared cell
+    private void record(double amount) {
+      COUNT.lazySet(this, count + 1);
+      TOTAL.lazySet(this, Double.doubleToRawLongBits(Double.longBitsToDouble(total) + amount));
+    }
+
+    private double total() {
+      return Double.longBitsToDouble(total);
+    }
+  }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertx.micrometer.impl.meters;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.function.Supplier;
+
+/**
+ * A timer recording into per event loop shards, registered as a {@link io.micrometer.core.instrument.FunctionTimer}
+ * summing them. Only the count and the total time are kept: there is no maximum nor histogram.
+ *
+ * @author Joel Takvorian
+ */
+final class ShardedTimer extends Shards<ShardedTimer.Cell> implements Timer {
+
+  ShardedTimer() {
+    super(new Cell());
+  }
+
+  @Override
+  Cell newShard() {
+    return new Cell();
+  }
+
+  @Override
+  public void record(long amount, TimeUnit unit) {
+    long nanos = unit.toNanos(amount);
+    if (nanos < 0) {
+      return;
+    }
+    Cell c = shard();
+    if (isShared(c)) {
+      synchronized (c) {
+        c.record(nanos);
+      }
+    } else {
+      c.record(nanos);
+    }
+  }
+
+  @Override
+  public <T> T record(Supplier<T> f) {
+    long start = System.nanoTime();
+    try {
+      return f.get();
+    } finally {
+      record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  @Override
+  public <T> T recordCallable(Callable<T> f) throws Exception {
+    long start = System.nanoTime();
+    try {
+      return f.call();
+    } finally {
+      record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  @Override
+  public void record(Runnable f) {
+    long start = System.nanoTime();
+    try {
+      f.run();
+    } finally {
+      record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  @Override
+  public long count() {
+    return sumLong(c -> c.count);
+  }
+
+  @Override
+  public double totalTime(TimeUnit unit) {
+    return (double) sumLong(c -> c.totalNanos) / unit.toNanos(1);
+  }
+
+  @Override
+  public double max(TimeUnit unit) {
+    return 0;
+  }
+
+  @Override
+  public TimeUnit baseTimeUnit() {
+    return TimeUnit.NANOSECONDS;
+  }
+
+  @Override
+  public HistogramSnapshot takeSnapshot() {
+    return HistogramSnapshot.empty(count(), totalTime(TimeUnit.NANOSECONDS), 0);
+  }
+
+  static final class Cell {
+    private static final AtomicLongFieldUpdater<Cell> COUNT = AtomicLongFieldUpdater.newUpdater(Cell.class, "count");
+    private static final AtomicLongFieldUpdater<Cell> TOTAL_NANOS = AtomicLongFieldUpdater.newUpdater(Cell.class, "totalNanos");
+
+    // Only written with ordered stores, no fence on the hot path
+    private volatile long count;
+    private volatile long totalNanos;
+
+    // Single writer: either the owning event loop, or any thread holding the lock of the shared cell
+    private void record(long nanos) {
+      COUNT.lazySet(this, count + 1);
+      TOTAL_NANOS.lazySet(this, totalNanos + nanos);
+    }
+  }
+}
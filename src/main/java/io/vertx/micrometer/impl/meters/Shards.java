@@ -0,0 +1,93 @@
+/*
+ * Copyright 2018 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertx.micrometer.impl.meters;
+
+import io.micrometer.core.instrument.Meter;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Per-thread shards of a meter value. Each Vert.x event loop thread gets its own shard, which only this thread writes
+ * to, so it can be updated without any atomic instruction. Other threads, and event loops beyond the number of shards,
+ * record into the shared one, under its lock.
+ * <p>
+ * Shards are merged by the meter registered in the registry, when it is read. Their values are published with ordered
+ * stores ({@code lazySet}), which do not fence the recording thread, and merged with volatile reads.
+ *
+ * @author Joel Takvorian
+ */
+abstract class Shards<S> {
+  private final AtomicReferenceArray<S> shards = new AtomicReferenceArray<>(EventLoopIndex.SIZE);
+  private final S shared;
+  // Set once the backing meter is registered
+  volatile Meter.Id id;
+
+  Shards(S shared) {
+    this.shared = shared;
+  }
+
+  /**
+   * @return the shard of the current thread, or the shared value
+   */
+  S shard() {
+    int i = EventLoopIndex.get();
+    if (i < 0) {
+      return shared;
+    }
+    S s = shards.get(i);
+    if (s == null) {
+      // Only the owning thread creates its shard, allocated from its own TLAB
+      s = newShard();
+      shards.set(i, s);
+    }
+    return s;
+  }
+
+  boolean isShared(S s) {
+    return s == shared;
+  }
+
+  abstract S newShard();
+
+  double sum(ToDoubleFunction<S> value) {
+    double sum = value.applyAsDouble(shared);
+    for (int i = 0; i < EventLoopIndex.SIZE; i++) {
+      S s = shards.get(i);
+      if (s != null) {
+        sum += value.applyAsDouble(s);
+      }
+    }
+    return sum;
+  }
+
+  long sumLong(ToLongFunction<S> value) {
+    long sum = value.applyAsLong(shared);
+    for (int i = 0; i < EventLoopIndex.SIZE; i++) {
+      S s = shards.get(i);
+      if (s != null) {
+        sum += value.applyAsLong(s);
+      }
+    }
+    return sum;
+  }
+
+  public Meter.Id getId() {
+    return id;
+  }
+}
@@ -17,34 +17,96 @@
 package io.vertx.micrometer.impl.meters;
 
 import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Measurement;
+import io.micrometer.core.instrument.Meter;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Statistic;
 import io.vertx.micrometer.Label;
-import io.vertx.micrometer.impl.Labels;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
 
 /**
  * @author Joel Takvorian
  */
-public class Summaries {
-  private final String name;
-  private final String description;
-  private final Label[] keys;
-  private final MeterRegistry registry;
+public class Summaries extends MeterFamily<DistributionSummary> {
+  private final boolean sharded;
+  private final AsyncRecorder recorder;
+  private final double samplingRate;
 
   public Summaries(String name,
                    String description,
                    MeterRegistry registry,
                    Label... keys) {
-    this.name = name;
-    this.description = description;
-    this.registry = registry;
-    this.keys = keys;
+    this(name, description, registry, EnumSet.allOf(Label.class), 0, keys);
+  }
+
+  public Summaries(String name,
+                   String description,
+                   MeterRegistry registry,
+                   Set<Label> enabledLabels,
+                   int maxSeries,
+                   Label... keys) {
+    this(name, description, registry, enabledLabels, maxSeries, false, null, 1, keys);
+  }
+
+  public Summaries(String name,
+                   String description,
+                   MeterRegistry registry,
+                   Set<Label> enabledLabels,
+                   int maxSeries,
+                   boolean sharded,
+                   AsyncRecorder recorder,
+                   double samplingRate,
+                   Label... keys) {
+    super(name, description, registry, enabledLabels, maxSeries, keys);
+    this.sharded = sharded;
+    this.recorder = recorder;
+    this.samplingRate = samplingRate;
   }
 
   public DistributionSummary get(String... values) {
-    // Get or create the Summary
-    return DistributionSummary.builder(name)
+    return lookup(values);
+  }
+
+  @Override
+  Series<DistributionSummary> create(String[] values) {
+    if (sharded) {
+      ShardedSummary s = new ShardedSummary();
+      Meter m = Meter.builder(name, Meter.Type.DISTRIBUTION_SUMMARY, Arrays.asList(
+          new Measurement(() -> (double) s.count(), Statistic.COUNT),
+          new Measurement(s::totalAmount, Statistic.TOTAL)))
+        .description(description)
+        .tags(tags(values))
+        .register(registry);
+      s.id = m.getId();
+      return series(m, async(s));
+    }
+    if (samplingRate < 1) {
+      SampledSummary s = new SampledSummary(samplingRate, registry.config().clock());
+      s.distribution = DistributionSummary.builder(name)
+        .description(description + " (sampled)")
+        .tags(tags(values))
+        .register(registry);
+      Meter m = Meter.builder(name + EXACT_SUFFIX, Meter.Type.DISTRIBUTION_SUMMARY, Arrays.asList(
+          new Measurement(() -> (double) s.count(), Statistic.COUNT),
+          new Measurement(s::totalAmount, Statistic.TOTAL),
+          new Measurement(s::max, Statistic.MAX)))
+        .description(description)
+        .tags(tags(values))
+        .register(registry);
+      s.id = m.getId();
+      return series(m, async(s), s.distribution);
+    }
+    DistributionSummary m = DistributionSummary.builder(name)
       .description(description)
-      .tags(Labels.toTags(keys, values))
+      .tags(tags(values))
       .register(registry);
+    return series(m, async(m));
+  }
+
+  private DistributionSummary async(DistributionSummary s) {
+    return recorder == null ? s : new AsyncSummary(s, recorder);
   }
 }
@@ -16,56 +16,135 @@
  */
 package io.vertx.micrometer.impl.meters;
 
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Measurement;
+import io.micrometer.core.instrument.Meter;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Statistic;
 import io.micrometer.core.instrument.Timer;
 import io.vertx.micrometer.Label;
-import io.vertx.micrometer.impl.Labels;
 
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 /**
  * @author Joel Takvorian
  */
-public class Timers {
-  private final String name;
-  private final String description;
-  private final Label[] keys;
-  private final MeterRegistry registry;
+public class Timers extends MeterFamily<Timer> {
+  private final boolean sharded;
+  private final AsyncRecorder recorder;
+  private final double samplingRate;
+  // Set when recording into compact histograms
+  private final CompactHistograms compactHistograms;
 
   public Timers(String name,
                 String description,
                 MeterRegistry registry,
                 Label... keys) {
-    this.name = name;
-    this.description = description;
-    this.registry = registry;
-    this.keys = keys;
+    this(name, description, registry, EnumSet.allOf(Label.class), 0, keys);
   }
 
-  public Timer get(String... values) {
-    // Get or create the Timer
-    return Timer.builder(name)
-      .description(description)
-      .tags(Labels.toTags(keys, values))
-      .register(registry);
+  public Timers(String name,
+                String description,
+                MeterRegistry registry,
+                Set<Label> enabledLabels,
+                int maxSeries,
+                Label... keys) {
+    this(name, description, registry, enabledLabels, maxSeries, false, null, 1, keys);
+  }
+
+  public Timers(String name,
+                String description,
+                MeterRegistry registry,
+                Set<Label> enabledLabels,
+                int maxSeries,
+                boolean sharded,
+                AsyncRecorder recorder,
+                double samplingRate,
+                Label... keys) {
+    this(name, description, registry, enabledLabels, maxSeries, sharded, recorder, samplingRate, (CompactHistograms) null, keys);
   }
 
-  public EventTiming start() {
-    return new EventTiming(this);
+  public Timers(String name,
+                String description,
+                MeterRegistry registry,
+                Set<Label> enabledLabels,
+                int maxSeries,
+                boolean sharded,
+                AsyncRecorder recorder,
+                double samplingRate,
+                CompactHistograms compactHistograms,
+                Label... keys) {
+    super(name, description, registry, enabledLabels, maxSeries, keys);
+    this.sharded = sharded;
+    this.recorder = recorder;
+    this.samplingRate = samplingRate;
+    this.compactHistograms = compactHistograms;
   }
 
-  public static class EventTiming {
-    private final Timers ref;
-    private final long nanoStart;
+  public Timer get(String... values) {
+    return lookup(values);
+  }
 
-    private EventTiming(Timers ref) {
-      this.ref = ref;
-      this.nanoStart = System.nanoTime();
+  @Override
+  Series<Timer> create(String[] values) {
+    // Metrics built from options never combine these modes: AbstractMetrics resolves and reports conflicting ones
+    if (sharded) {
+      ShardedTimer t = new ShardedTimer();
+      FunctionTimer m = FunctionTimer.builder(name, t, ShardedTimer::count, s -> s.totalTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS)
+        .description(description)
+        .tags(tags(values))
+        .register(registry);
+      t.id = m.getId();
+      return series(m, async(t));
+    }
+    if (compactHistograms != null) {
+      CompactTimer t = new CompactTimer();
+      FunctionTimer m = FunctionTimer.builder(name, t, CompactTimer::count, s -> s.totalTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS)
+        .description(description)
+        .tags(tags(values))
+        .register(registry);
+      t.id = m.getId();
+      compactHistograms.add(m.getId(), t.histogram);
+      return series(m, async(t));
     }
+    if (samplingRate < 1) {
+      SampledTimer t = new SampledTimer(samplingRate, registry.config().clock());
+      t.distribution = Timer.builder(name)
+        .description(description + " (sampled)")
+        .tags(tags(values))
+        .register(registry);
+      // Measurements of custom meters are not converted: they are expressed in the base time unit of the registry
+      TimeUnit unit = t.distribution.baseTimeUnit();
+      Meter m = Meter.builder(name + EXACT_SUFFIX, Meter.Type.TIMER, Arrays.asList(
+          new Measurement(() -> (double) t.count(), Statistic.COUNT),
+          new Measurement(() -> t.totalTime(unit), Statistic.TOTAL_TIME),
+          new Measurement(() -> t.max(unit), Statistic.MAX)))
+        .description(description)
+        .tags(tags(values))
+        .baseUnit(unit.name().toLowerCase(Locale.ROOT))
+        .register(registry);
+      t.id = m.getId();
+      return series(m, async(t), t.distribution);
+    }
+    Timer m = Timer.builder(name)
+      .description(description)
+      .tags(tags(values))
+      .register(registry);
+    return series(m, async(m));
+  }
 
-    public void end(String... values) {
-      Timer t = ref.get(values);
-      t.record(System.nanoTime() - nanoStart, TimeUnit.NANOSECONDS);
+  @Override
+  void removed(Meter meter) {
+    if (compactHistograms != null) {
+      compactHistograms.remove(meter.getId());
     }
   }
+
+  private Timer async(Timer t) {
+    return recorder == null ? t : new AsyncTimer(t, recorder);
+  }
 }
@@ -0,0 +1,79 @@
+package io.vertx.micrometer;
+
+import io.vertx.core.json.JsonObject;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author Joel Takvorian
+ */
+public class MicrometerMetricsOptionsTest {
+
+  @Test
+  public void shouldRejectInvalidSamplingRates() {
+    MicrometerMetricsOptions options = new MicrometerMetricsOptions();
+    for (double rate : new double[]{0, -0.5, 1.5, Double.NaN}) {
+      assertThatThrownBy(() -> options.setSamplingRate(rate)).isInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> options.setSamplingRate(MetricsDomain.HTTP_SERVER, rate)).isInstanceOf(IllegalArgumentException.class);
+    }
+    assertThatThrownBy(() -> new MicrometerMetricsOptions(new JsonObject()
+      .put("domainSamplingRate", new JsonObject().put("HTTP_SERVER", 0))))
+      .isInstanceOf(IllegalArgumentException.class);
+
+    options.setSamplingRate(0.1).setSamplingRate(MetricsDomain.HTTP_SERVER, 1);
+    assertThat(options.getSamplingRate(MetricsDomain.HTTP_CLIENT)).isEqualTo(0.1);
+    assertThat(options.getSamplingRate(MetricsDomain.HTTP_SERVER)).isEqualTo(1);
+  }
+
+  @Test
+  public void shouldRejectNegativeMaxSeriesPerFamily() {
+    MicrometerMetricsOptions options = new MicrometerMetricsOptions();
+    assertThatThrownBy(() -> options.setMaxSeriesPerFamily(-1)).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> options.setMaxSeriesPerFamily(MetricsDomain.HTTP_SERVER, -1)).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> new MicrometerMetricsOptions(new JsonObject().put("maxSeriesPerFamily", -1)))
+      .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> new MicrometerMetricsOptions(new JsonObject()
+      .put("domainMaxSeriesPerFamily", new JsonObject().put("HTTP_SERVER", -1))))
+      .isInstanceOf(IllegalArgumentException.class);
+
+    options.setMaxSeriesPerFamily(0).setMaxSeriesPerFamily(MetricsDomain.HTTP_SERVER, 100);
+    assertThat(options.getMaxSeriesPerFamily(MetricsDomain.HTTP_CLIENT)).isEqualTo(0);
+    assertThat(options.getMaxSeriesPerFamily(MetricsDomain.HTTP_SERVER)).isEqualTo(100);
+  }
+
+  @Test
+  public void shouldRejectNegativeSeriesIdleTimeout() {
+    MicrometerMetricsOptions options = new MicrometerMetricsOptions();
+    assertThatThrownBy(() -> options.setSeriesIdleTimeout(-1)).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> new MicrometerMetricsOptions(new JsonObject().put("seriesIdleTimeout", -1)))
+      .isInstanceOf(IllegalArgumentException.class);
+
+    assertThat(options.setSeriesIdleTimeout(0).getSeriesIdleTimeout()).isEqualTo(0);
+  }
+
+  @Test
+  public void shouldRejectInvalidAsyncRecordingBufferSizes() {
+    MicrometerMetricsOptions options = new MicrometerMetricsOptions();
+    for (int size : new int[]{0, -1, (1 << 30) + 1}) {
+      assertThatThrownBy(() -> options.setAsyncRecordingBufferSize(size)).isInstanceOf(IllegalArgumentException.class);
+    }
+    assertThatThrownBy(() -> new MicrometerMetricsOptions(new JsonObject().put("asyncRecordingBufferSize", 0)))
+      .isInstanceOf(IllegalArgumentException.class);
+
+    assertThat(options.setAsyncRecordingBufferSize(1).getAsyncRecordingBufferSize()).isEqualTo(1);
+  }
+
+  @Test
+  public void shouldRejectNonPositiveCoarseClockResolution() {
+    MicrometerMetricsOptions options = new MicrometerMetricsOptions();
+    for (long resolution : new long[]{0, -1}) {
+      assertThatThrownBy(() -> options.setCoarseClockResolution(resolution)).isInstanceOf(IllegalArgumentException.class);
+    }
+    assertThatThrownBy(() -> new MicrometerMetricsOptions(new JsonObject().put("coarseClockResolution", 0)))
+      .isInstanceOf(IllegalArgumentException.class);
+
+    assertThat(options.setCoarseClockResolution(10).getCoarseClockResolution()).isEqualTo(10);
+  }
+}
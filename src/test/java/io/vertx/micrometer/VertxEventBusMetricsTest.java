@@ -1,5 +1,7 @@
 package io.vertx.micrometer;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import io.vertx.core.AbstractVerticle;
 import io.vertx.core.DeploymentOptions;
 import io.vertx.core.Future;
@@ -9,12 +11,15 @@ import io.vertx.core.json.JsonObject;
 import io.vertx.ext.unit.Async;
 import io.vertx.ext.unit.TestContext;
 import io.vertx.ext.unit.junit.VertxUnitRunner;
+import io.vertx.micrometer.backends.BackendRegistries;
 import org.assertj.core.util.DoubleComparator;
 import org.junit.After;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.UUID;
 
 import static io.vertx.micrometer.RegistryInspector.dp;
 import static io.vertx.micrometer.RegistryInspector.listDatapoints;
@@ -110,4 +115,57 @@ public class VertxEventBusMetricsTest {
         dp("vertx.eventbus.processingTime[address=testSubject]$TOTAL_TIME", 180d * instances / 1000d),
         dp("vertx.eventbus.processingTime[address=testSubject]$MAX", 30d / 1000d));
   }
+
+  @Test
+  public void shouldNotShardTimersWithDistribution(TestContext context) {
+    String registryName = UUID.randomUUID().toString();
+    vertx = Vertx.vertx(new VertxOptions().setMetricsOptions(new MicrometerMetricsOptions()
+      .setPrometheusOptions(new VertxPrometheusOptions().setEnabled(true))
+      .setRegistryName(registryName)
+      .addLabels(Label.EB_ADDRESS)
+      .setMeterShardingEnabled(true)
+      .addDistribution(new DistributionOptions()
+        .setDomain(MetricsDomain.EVENT_BUS)
+        .setPercentiles(Collections.singletonList(0.99)))
+      .setEnabled(true)));
+
+    Async received = context.async();
+    vertx.eventBus().consumer("testSubject", msg -> received.complete());
+    vertx.eventBus().send("testSubject", "hello");
+    received.awaitSuccess();
+
+    waitForValue(vertx, context, registryName, "vertx.eventbus.processingTime[address=testSubject]$COUNT",
+      value -> value.intValue() == 1);
+    MeterRegistry registry = BackendRegistries.getNow(registryName);
+    // A regular timer, with its percentiles, rather than a sharded function timer
+    Timer timer = registry.find("vertx.eventbus.processingTime").timer();
+    assertThat(timer).isNotNull();
+    assertThat(timer.takeSnapshot().percentileValues()).hasSize(1);
+    // Counters are still sharded
+    assertThat(registry.find("vertx.eventbus.received").functionCounter()).isNotNull();
+  }
+
+  @Test
+  public void shouldNotShardSampledTimers(TestContext context) {
+    String registryName = UUID.randomUUID().toString();
+    vertx = Vertx.vertx(new VertxOptions().setMetricsOptions(new MicrometerMetricsOptions()
+      .setPrometheusOptions(new VertxPrometheusOptions().setEnabled(true))
+      .setRegistryName(registryName)
+      .addLabels(Label.EB_ADDRESS)
+      .setMeterShardingEnabled(true)
+      .setSamplingRate(MetricsDomain.EVENT_BUS, 0.5)
+      .setEnabled(true)));
+
+    Async received = context.async();
+    vertx.eventBus().consumer("testSubject", msg -> received.complete());
+    vertx.eventBus().send("testSubject", "hello");
+    received.awaitSuccess();
+
+    waitForValue(vertx, context, registryName, "vertx.eventbus.processingTime.exact[address=testSubject]$COUNT",
+      value -> value.intValue() == 1);
+    MeterRegistry registry = BackendRegistries.getNow(registryName);
+    // Sampling set on the domain takes precedence over the global sharding
+    assertThat(registry.find("vertx.eventbus.processingTime").timer()).isNotNull();
+    assertThat(registry.find("vertx.eventbus.processingTime").functionTimer()).isNull();
+  }
 }
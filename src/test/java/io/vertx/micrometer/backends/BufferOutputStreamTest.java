@@ -0,0 +1,53 @@
+package io.vertx.micrometer.backends;
+
+import io.vertx.core.buffer.Buffer;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Joel Takvorian
+ */
+public class BufferOutputStreamTest {
+
+  @Test
+  public void shouldEmitFullChunksThenRemainder() throws Exception {
+    List<Buffer> chunks = new ArrayList<>();
+    BufferOutputStream out = new BufferOutputStream(4, (chunk, recycle) -> chunks.add(chunk));
+    out.write("abcdefghij".getBytes());
+    out.write('k');
+    assertThat(chunks).extracting(Buffer::toString).containsExactly("abcd", "efgh");
+
+    out.close();
+    assertThat(chunks).extracting(Buffer::toString).containsExactly("abcd", "efgh", "ijk");
+  }
+
+  @Test
+  public void shouldNotEmitEmptyChunk() throws Exception {
+    List<Buffer> chunks = new ArrayList<>();
+    BufferOutputStream out = new BufferOutputStream(4, (chunk, recycle) -> chunks.add(chunk));
+    out.write("abcd".getBytes());
+    out.close();
+    assertThat(chunks).extracting(Buffer::toString).containsExactly("abcd");
+  }
+
+  @Test
+  public void shouldReuseRecycledChunks() throws Exception {
+    ChunkPool pool = new ChunkPool(4, 1);
+    List<String> chunks = new ArrayList<>();
+    List<byte[]> memory = new ArrayList<>();
+    BufferOutputStream out = new BufferOutputStream(pool, (chunk, recycle) -> {
+      chunks.add(chunk.toString());
+      memory.add(chunk.getByteBuf().array());
+      recycle.run();
+    });
+    out.write("abcdefghij".getBytes());
+    out.close();
+    assertThat(chunks).containsExactly("abcd", "efgh", "ij");
+    // The first chunk is recycled while the second one is filled, then reused for the third one
+    assertThat(memory.get(2)).isSameAs(memory.get(0));
+  }
+}
@@ -0,0 +1,64 @@
+package io.vertx.micrometer.backends;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.CountAtBucket;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.vertx.micrometer.DistributionOptions;
+import io.vertx.micrometer.MetricsDomain;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Joel Takvorian
+ */
+public class DistributionsFilterTest {
+
+  @Test
+  public void shouldOverrideBackendDistributions() {
+    MeterRegistry registry = new SimpleMeterRegistry();
+    // Same as Prometheus' publishQuantiles
+    registry.config().meterFilter(new MeterFilter() {
+      @Override
+      public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+        return DistributionStatisticConfig.builder().percentilesHistogram(true).build().merge(config);
+      }
+    });
+    BackendRegistries.registerDistributions(registry, Arrays.asList(
+      new DistributionOptions().setName("vertx.http.server.responseTime").setSla(Arrays.asList(5.0, 50.0)),
+      new DistributionOptions().setDomain(MetricsDomain.HTTP_SERVER).setPercentilesHistogram(false)));
+
+    Timer responseTime = registry.timer("vertx.http.server.responseTime");
+    responseTime.record(10, TimeUnit.MILLISECONDS);
+    CountAtBucket[] buckets = responseTime.takeSnapshot().histogramCounts();
+    assertThat(buckets).extracting(CountAtBucket::bucket)
+      .containsExactly((double) TimeUnit.MILLISECONDS.toNanos(5), (double) TimeUnit.MILLISECONDS.toNanos(50));
+    assertThat(buckets).extracting(CountAtBucket::count).containsExactly(0d, 1d);
+
+    DistributionSummary bytes = registry.summary("vertx.http.server.bytesReceived");
+    bytes.record(100);
+    assertThat(bytes.takeSnapshot().histogramCounts()).isEmpty();
+
+    // Other domains keep the backend configuration
+    assertThat(registry.timer("vertx.eventbus.processingTime").takeSnapshot().histogramCounts()).isNotEmpty();
+  }
+
+  @Test
+  public void shouldConfigureSummariesInTheirUnit() {
+    MeterRegistry registry = new SimpleMeterRegistry();
+    BackendRegistries.registerDistributions(registry, Arrays.asList(
+      new DistributionOptions().setName("vertx.http.client.bytesSent").setSla(Arrays.asList(1024.0))));
+
+    DistributionSummary bytes = registry.summary("vertx.http.client.bytesSent");
+    bytes.record(100);
+    assertThat(bytes.takeSnapshot().histogramCounts()).extracting(CountAtBucket::bucket).containsExactly(1024d);
+  }
+}
@@ -0,0 +1,130 @@
+package io.vertx.micrometer.backends;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.config.MeterFilterReply;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.vertx.micrometer.Label;
+import io.vertx.micrometer.Match;
+import io.vertx.micrometer.MatchType;
+import io.vertx.micrometer.MetricsDomain;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Joel Takvorian
+ */
+public class MatchersFilterTest {
+
+  @Test
+  public void shouldRestrictToMatchingValues() {
+    MeterRegistry registry = new SimpleMeterRegistry();
+    BackendRegistries.registerMatchers(registry, Arrays.asList(
+      new Match().setDomain(MetricsDomain.HTTP_SERVER).setLabel("local").setValue("localhost:8080"),
+      new Match().setDomain(MetricsDomain.HTTP_SERVER).setLabel("local").setValue("127\\.0\\.0\\.1:.*").setType(MatchType.REGEX)));
+    registry.counter("vertx.http.server.requestCount", "local", "localhost:8080").increment();
+    registry.counter("vertx.http.server.requestCount", "local", "127.0.0.1:9090").increment();
+    registry.counter("vertx.http.server.requestCount", "local", "localhost:9090").increment();
+    registry.counter("vertx.http.server.requestCount", "method", "GET").increment();
+    registry.counter("vertx.net.server.errors", "local", "localhost:9090").increment();
+
+    assertThat(registry.find("vertx.http.server.requestCount").tags("local", "localhost:8080").counter()).isNotNull();
+    assertThat(registry.find("vertx.http.server.requestCount").tags("local", "127.0.0.1:9090").counter()).isNotNull();
+    assertThat(registry.find("vertx.http.server.requestCount").tags("local", "localhost:9090").counter()).isNull();
+    // Rules only apply to meters having the label, in the given domain
+    assertThat(registry.find("vertx.http.server.requestCount").tags("method", "GET").counter()).isNotNull();
+    assertThat(registry.find("vertx.net.server.errors").tags("local", "localhost:9090").counter()).isNotNull();
+  }
+
+  @Test
+  public void shouldPreferExactAliasThenFirstRegex() {
+    MeterRegistry registry = new SimpleMeterRegistry();
+    BackendRegistries.registerMatchers(registry, Arrays.asList(
+      new Match().setLabel("path").setValue("/api/.*").setType(MatchType.REGEX).setAlias("api"),
+      new Match().setLabel("path").setValue("/api/v.*").setType(MatchType.REGEX).setAlias("versioned"),
+      new Match().setLabel("path").setValue("/api/health").setAlias("health")));
+    registry.counter("my_counter", "path", "/api/health").increment();
+    registry.counter("my_counter", "path", "/api/v2/users").increment();
+    registry.counter("my_counter", "path", "/api/users").increment();
+    registry.counter("my_counter", "path", "/other").increment();
+
+    assertThat(registry.find("my_counter").tags("path", "health").counter().count()).isEqualTo(1d);
+    assertThat(registry.find("my_counter").tags("path", "api").counter().count()).isEqualTo(2d);
+    assertThat(registry.find("my_counter").tags("path", "versioned").counter()).isNull();
+    Counter c = registry.find("my_counter").tags("path", "/other").counter();
+    assertThat(c.count()).isEqualTo(1d);
+  }
+
+  @Test
+  public void shouldMemoizeRegexResults() {
+    MatchersFilter filter = new MatchersFilter(Collections.singletonList(
+      new Match().setLabel("path").setValue("/users/[0-9]+").setType(MatchType.REGEX).setAlias("/users/:id")), 2);
+    Meter.Id id = new Meter.Id("my_counter", Tags.of("path", "/users/1"), null, null, Meter.Type.COUNTER);
+    assertThat(filter.map(id).getTag("path")).isEqualTo("/users/:id");
+    assertThat(filter.map(id).getTag("path")).isEqualTo("/users/:id");
+    assertThat(filter.cacheMisses()).isEqualTo(1);
+    assertThat(filter.cacheHits()).isEqualTo(1);
+
+    // Not renamed values are memoized too, and the least recently used value is evicted once full
+    Meter.Id other = new Meter.Id("my_counter", Tags.of("path", "/other"), null, null, Meter.Type.COUNTER);
+    assertThat(filter.map(other)).isSameAs(other);
+    assertThat(filter.map(other)).isSameAs(other);
+    assertThat(filter.map(id.replaceTags(Tags.of("path", "/users/2"))).getTag("path")).isEqualTo("/users/:id");
+    assertThat(filter.map(other)).isSameAs(other);
+    assertThat(filter.map(id).getTag("path")).isEqualTo("/users/:id");
+    assertThat(filter.cacheMisses()).isEqualTo(4);
+    assertThat(filter.cacheHits()).isEqualTo(3);
+  }
+
+  @Test
+  public void shouldExposeCacheMetrics() {
+    MeterRegistry registry = new SimpleMeterRegistry();
+    BackendRegistries.registerMatchers(registry, Collections.singletonList(
+      new Match().setLabel("path").setValue("/users/.*").setType(MatchType.REGEX)));
+    registry.counter("my_counter", "path", "/users/1").increment();
+    registry.counter("other_counter", "path", "/users/1").increment();
+    assertThat(registry.get("vertx.matchers.cacheMisses").functionCounter().count()).isEqualTo(1d);
+    assertThat(registry.get("vertx.matchers.cacheHits").functionCounter().count()).isEqualTo(1d);
+  }
+
+  @Test
+  public void shouldDenyValuesNotWhitelisted() {
+    MatchersFilter filter = new MatchersFilter(Arrays.asList(
+      new Match().setLabel("local").setValue("localhost:8080"),
+      new Match().setLabel("local").setValue("127\\.0\\.0\\.1:.*").setType(MatchType.REGEX)));
+    Meter.Id id = new Meter.Id("my_counter", Tags.of("local", "localhost:8080"), null, null, Meter.Type.COUNTER);
+    // Matching values are left to the other filters, while any other value is denied: rules without alias used to be
+    // neutral for them
+    assertThat(filter.accept(id)).isEqualTo(MeterFilterReply.NEUTRAL);
+    assertThat(filter.accept(id.replaceTags(Tags.of("local", "127.0.0.1:9090")))).isEqualTo(MeterFilterReply.NEUTRAL);
+    assertThat(filter.accept(id.replaceTags(Tags.of("local", "localhost:9090")))).isEqualTo(MeterFilterReply.DENY);
+    assertThat(filter.accept(id.replaceTags(Tags.of("remote", "localhost:9090")))).isEqualTo(MeterFilterReply.NEUTRAL);
+  }
+
+  @Test
+  public void shouldNotChainAliases() {
+    MatchersFilter filter = new MatchersFilter(Arrays.asList(
+      new Match().setLabel("path").setValue("/users/[0-9]+").setType(MatchType.REGEX).setAlias("/users/:id"),
+      new Match().setLabel("path").setValue("/users/:id").setAlias("users")));
+    Meter.Id id = new Meter.Id("my_counter", Tags.of("path", "/users/1"), null, null, Meter.Type.COUNTER);
+    // Each value is renamed once, aliases are not matched again
+    assertThat(filter.map(id).getTag("path")).isEqualTo("/users/:id");
+  }
+
+  @Test
+  @SuppressWarnings("deprecation")
+  public void shouldIgnoreDisabledLabelsWithDeprecatedRegistration() {
+    MeterRegistry registry = new SimpleMeterRegistry();
+    BackendRegistries.registerMatchers(registry, EnumSet.of(Label.LOCAL), Collections.emptyList());
+    registry.counter("my_counter", "local", "localhost:8080", "remote", "localhost:9090").increment();
+    assertThat(registry.get("my_counter").counter().getId().getTags()).containsExactly(Tag.of("local", "localhost:8080"));
+  }
+}
@@ -0,0 +1,208 @@
+package io.vertx.micrometer.backends;
+
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import io.prometheus.client.Collector;
+import io.vertx.core.Vertx;
+import io.vertx.core.WorkerExecutor;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpServer;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import io.vertx.micrometer.VertxPrometheusOptions;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Scrapes streamed to a real HTTP server, i.e. without cache.
+ *
+ * @author Joel Takvorian
+ */
+@RunWith(VertxUnitRunner.class)
+public class PrometheusScraperStreamingTest {
+
+  private Vertx vertx;
+  private PrometheusMeterRegistry registry;
+  private PrometheusScraper scraper;
+  private HttpClient client;
+  private int port;
+
+  @Before
+  public void setUp() {
+    vertx = Vertx.vertx();
+    registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+    client = vertx.createHttpClient();
+  }
+
+  @After
+  public void tearDown(TestContext context) {
+    if (scraper != null) {
+      scraper.close();
+    }
+    vertx.close(context.asyncAssertSuccess());
+  }
+
+  private void startServer(TestContext context, VertxPrometheusOptions options) {
+    scraper = new PrometheusScraper(registry, options);
+    Async listening = context.async();
+    HttpServer server = vertx.createHttpServer().requestHandler(scraper::handle);
+    server.listen(0, "127.0.0.1", context.asyncAssertSuccess(s -> {
+      port = s.actualPort();
+      listening.complete();
+    }));
+    listening.awaitSuccess(5000);
+  }
+
+  @Test
+  public void shouldStreamChunkedResponse(TestContext context) {
+    for (int i = 0; i < 5000; i++) {
+      registry.counter("chunked_counter", "index", String.valueOf(i)).increment();
+    }
+    startServer(context, new VertxPrometheusOptions());
+
+    Async plain = context.async();
+    client.get(port, "127.0.0.1", "/metrics", context.asyncAssertSuccess(resp -> {
+      context.assertEquals(200, resp.statusCode());
+      context.assertEquals("chunked", resp.getHeader(HttpHeaders.TRANSFER_ENCODING));
+      context.assertNull(resp.getHeader(HttpHeaders.CONTENT_LENGTH));
+      resp.bodyHandler(body -> {
+        context.verify(v -> assertThat(body.toString())
+          .contains("chunked_counter_total{index=\"0\",} 1.0")
+          .contains("chunked_counter_total{index=\"4999\",} 1.0"));
+        plain.complete();
+      });
+    })).end();
+    plain.awaitSuccess(10000);
+
+    Async compressed = context.async();
+    client.get(port, "127.0.0.1", "/metrics", context.asyncAssertSuccess(resp -> {
+      context.assertEquals("gzip", resp.getHeader(HttpHeaders.CONTENT_ENCODING));
+      resp.bodyHandler(body -> {
+        context.verify(v -> assertThat(gunzip(body)).contains("chunked_counter_total{index=\"4999\",} 1.0"));
+        compressed.complete();
+      });
+    })).putHeader(HttpHeaders.ACCEPT_ENCODING, "gzip").end();
+    compressed.awaitSuccess(10000);
+
+    // The rendering time is measured once per scrape
+    assertThat(registry.find("vertx.prometheus.scrapeDuration").timer().count()).isEqualTo(2);
+  }
+
+  @Test
+  public void shouldAnswer503OnTimeout(TestContext context) {
+    CountDownLatch blocked = new CountDownLatch(1);
+    new Collector() {
+      @Override
+      public List<MetricFamilySamples> collect() {
+        try {
+          blocked.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        return Collections.emptyList();
+      }
+    }.register(registry.getPrometheusRegistry());
+    startServer(context, new VertxPrometheusOptions().setScrapeTimeout(100));
+
+    Async async = context.async();
+    client.getNow(port, "127.0.0.1", "/metrics", context.asyncAssertSuccess(resp -> {
+      context.assertEquals(503, resp.statusCode());
+      blocked.countDown();
+      async.complete();
+    }));
+    async.awaitSuccess(10000);
+  }
+
+  @Test
+  public void shouldReleaseWorkerWhenScraperDisconnects(TestContext context) {
+    // Hardly compressible, so that the gzip stream fills the write queue of a scraper not reading
+    for (int i = 0; i < 50_000; i++) {
+      registry.counter("large_counter", "id", UUID.randomUUID().toString()).increment();
+    }
+    // A single worker: a rendering stuck after the disconnection would block the next scrape
+    WorkerExecutor pool = vertx.createSharedWorkerExecutor("scrape-test", 1);
+    startServer(context, new VertxPrometheusOptions().setScrapeWorkerPoolName("scrape-test"));
+
+    Async disconnected = context.async();
+    client.get(port, "127.0.0.1", "/metrics", context.asyncAssertSuccess(resp -> {
+      context.assertEquals(200, resp.statusCode());
+      resp.pause();
+      vertx.setTimer(500, id -> {
+        resp.request().connection().close();
+        disconnected.complete();
+      });
+    })).putHeader(HttpHeaders.ACCEPT_ENCODING, "gzip").exceptionHandler(t -> {}).end();
+    disconnected.awaitSuccess(10000);
+
+    Async next = context.async();
+    vertx.createHttpClient().getNow(port, "127.0.0.1", "/metrics", context.asyncAssertSuccess(resp -> {
+      context.assertEquals(200, resp.statusCode());
+      resp.bodyHandler(body -> next.complete());
+    }));
+    next.awaitSuccess(20000);
+    pool.close();
+  }
+
+  @Test
+  public void shouldReleaseWorkerWhenScraperStopsReading(TestContext context) {
+    // Several MB of output, more than the socket buffers can hold
+    for (int i = 0; i < 200_000; i++) {
+      registry.counter("large_counter", "id", UUID.randomUUID().toString()).increment();
+    }
+    WorkerExecutor pool = vertx.createSharedWorkerExecutor("scrape-test", 1);
+    startServer(context, new VertxPrometheusOptions()
+      .setScrapeWorkerPoolName("scrape-test")
+      .setScrapeTimeout(2000));
+
+    // Connected, but never reading
+    Async stalled = context.async();
+    client.get(port, "127.0.0.1", "/metrics", context.asyncAssertSuccess(resp -> {
+      context.assertEquals(200, resp.statusCode());
+      resp.pause();
+      stalled.complete();
+    })).exceptionHandler(t -> {}).end();
+    stalled.awaitSuccess(10000);
+
+    // Served by the single worker once the stalled scrape is aborted
+    Async next = context.async();
+    vertx.createHttpClient().getNow(port, "127.0.0.1", "/metrics", context.asyncAssertSuccess(resp -> {
+      context.assertEquals(200, resp.statusCode());
+      resp.bodyHandler(body -> next.complete());
+    }));
+    next.awaitSuccess(30000);
+    pool.close();
+  }
+
+  private static String gunzip(Buffer body) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(body.getBytes()))) {
+      byte[] b = new byte[4096];
+      int n;
+      while ((n = in.read(b)) > 0) {
+        out.write(b, 0, n);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return new String(out.toByteArray(), StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,101 @@
+package io.vertx.micrometer.backends;
+
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.micrometer.VertxPrometheusOptions;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Joel Takvorian
+ */
+public class PrometheusScraperTest {
+
+  @Test
+  public void shouldReuseRenderingWithinCacheDuration() throws Exception {
+    PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+    PrometheusScraper scraper = new PrometheusScraper(registry, new VertxPrometheusOptions().setScrapeCacheDuration(60_000));
+    registry.counter("first_counter").increment();
+    List<Buffer> first = scraper.render(ScrapeFormat.TEXT, null).get();
+    registry.counter("second_counter").increment();
+
+    assertThat(text(first)).contains("first_counter_total");
+    assertThat(scraper.render(ScrapeFormat.TEXT, null).get()).isSameAs(first);
+  }
+
+  @Test
+  public void shouldRenderEveryScrapeWithoutCache() throws Exception {
+    PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+    PrometheusScraper scraper = new PrometheusScraper(registry, new VertxPrometheusOptions());
+    registry.counter("first_counter").increment();
+    assertThat(text(scraper.render(ScrapeFormat.TEXT, null).get())).doesNotContain("second_counter_total");
+    registry.counter("second_counter").increment();
+
+    assertThat(text(scraper.render(ScrapeFormat.TEXT, null).get())).contains("second_counter_total");
+  }
+
+  @Test
+  public void shouldRenderLargeRegistryInChunks() throws Exception {
+    PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+    PrometheusScraper scraper = new PrometheusScraper(registry, new VertxPrometheusOptions());
+    for (int i = 0; i < 5000; i++) {
+      registry.counter("chunked_counter", "index", String.valueOf(i)).increment();
+    }
+    List<Buffer> chunks = scraper.render(ScrapeFormat.TEXT, null).get();
+
+    assertThat(chunks.size()).isGreaterThan(1);
+    assertThat(text(chunks))
+      .contains("chunked_counter_total{index=\"0\",} 1.0")
+      .contains("chunked_counter_total{index=\"4999\",} 1.0");
+  }
+
+  @Test
+  public void shouldCompressAndCacheCompressedRendering() throws Exception {
+    PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+    PrometheusScraper scraper = new PrometheusScraper(registry, new VertxPrometheusOptions().setScrapeCacheDuration(60_000));
+    registry.counter("some_counter").increment();
+    List<Buffer> chunks = scraper.render(ScrapeFormat.TEXT, null).get();
+    List<Buffer> compressed = scraper.compress(chunks, ScrapeFormat.TEXT, null).get();
+
+    assertThat(gunzip(compressed)).isEqualTo(text(chunks));
+    assertThat(scraper.compress(chunks, ScrapeFormat.TEXT, null).get()).isSameAs(compressed);
+  }
+
+  @Test
+  public void shouldAcceptGzipEncoding() {
+    assertThat(PrometheusScraper.acceptsGzip("gzip")).isTrue();
+    assertThat(PrometheusScraper.acceptsGzip("deflate, GZIP;q=0.5")).isTrue();
+    assertThat(PrometheusScraper.acceptsGzip("*")).isTrue();
+    assertThat(PrometheusScraper.acceptsGzip(null)).isFalse();
+    assertThat(PrometheusScraper.acceptsGzip("identity")).isFalse();
+    assertThat(PrometheusScraper.acceptsGzip("gzip;q=0")).isFalse();
+  }
+
+  private static String text(List<Buffer> chunks) {
+    Buffer all = Buffer.buffer();
+    chunks.forEach(all::appendBuffer);
+    return all.toString();
+  }
+
+  private static String gunzip(List<Buffer> chunks) throws Exception {
+    Buffer all = Buffer.buffer();
+    chunks.forEach(all::appendBuffer);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(all.getBytes()))) {
+      byte[] b = new byte[4096];
+      int n;
+      while ((n = in.read(b)) > 0) {
+        out.write(b, 0, n);
+      }
+    }
+    return new String(out.toByteArray(), "UTF-8");
+  }
+}
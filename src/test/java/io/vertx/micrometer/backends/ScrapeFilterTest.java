@@ -0,0 +1,134 @@
+package io.vertx.micrometer.backends;
+
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import io.prometheus.client.Collector;
+import io.prometheus.client.Collector.MetricFamilySamples;
+import io.vertx.core.MultiMap;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author Joel Takvorian
+ */
+public class ScrapeFilterTest {
+
+  private PrometheusMeterRegistry registry;
+
+  @Before
+  public void setUp() {
+    registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+    registry.counter("vertx.http.server.requestCount").increment();
+    registry.counter("vertx.http.client.requestCount").increment();
+    registry.counter("vertx.eventbus.published").increment();
+  }
+
+  @Test
+  public void shouldNotFilterWithoutParameters() {
+    assertThat(ScrapeFilter.of(MultiMap.caseInsensitiveMultiMap())).isNull();
+  }
+
+  @Test
+  public void shouldFilterByName() {
+    MultiMap params = MultiMap.caseInsensitiveMultiMap()
+      .add("name[]", "vertx_http_server_requestCount_total")
+      .add("name[]", "vertx_eventbus_published_total");
+
+    assertThat(families(ScrapeFilter.of(params)))
+      .containsExactlyInAnyOrder("vertx_http_server_requestCount_total", "vertx_eventbus_published_total");
+  }
+
+  @Test
+  public void shouldFilterByDomain() {
+    MultiMap params = MultiMap.caseInsensitiveMultiMap()
+      .add("domain", "HTTP_SERVER")
+      .add("domain", "HTTP_CLIENT");
+
+    assertThat(families(ScrapeFilter.of(params)))
+      .containsExactlyInAnyOrder("vertx_http_server_requestCount_total", "vertx_http_client_requestCount_total");
+  }
+
+  @Test
+  public void shouldFilterByNameAndDomain() {
+    MultiMap params = MultiMap.caseInsensitiveMultiMap()
+      .add("domain", "HTTP_SERVER")
+      .add("name[]", "vertx_http_server_requestCount_total")
+      .add("name[]", "vertx_eventbus_published_total");
+
+    assertThat(families(ScrapeFilter.of(params))).containsExactly("vertx_http_server_requestCount_total");
+  }
+
+  @Test
+  public void shouldNotCollectOtherDomains() {
+    AtomicInteger gaugeReads = new AtomicInteger();
+    registry.gauge("vertx.eventbus.handlers", gaugeReads, AtomicInteger::incrementAndGet);
+    AtomicInteger collects = new AtomicInteger();
+    new Collector() {
+      @Override
+      public List<MetricFamilySamples> collect() {
+        collects.incrementAndGet();
+        return Collections.singletonList(new MetricFamilySamples("custom_family", Type.GAUGE, "custom", Collections.emptyList()));
+      }
+    }.register(registry.getPrometheusRegistry());
+    int registrationCollects = collects.get();
+    MultiMap params = MultiMap.caseInsensitiveMultiMap().add("domain", "HTTP_SERVER");
+
+    assertThat(families(ScrapeFilter.of(params))).containsExactly("vertx_http_server_requestCount_total");
+    assertThat(gaugeReads.get()).isZero();
+    assertThat(collects.get()).isEqualTo(registrationCollects);
+  }
+
+  @Test
+  public void shouldFilterUnindexedCollectors() {
+    Collector unindexed = new Collector() {
+      @Override
+      public List<MetricFamilySamples> collect() {
+        return Arrays.asList(family("vertx_http_server_responseTime_histogram_seconds"), family("vertx_eventbus_processingTime_histogram_seconds"));
+      }
+    };
+    MultiMap params = MultiMap.caseInsensitiveMultiMap().add("domain", "HTTP_SERVER");
+    assertThat(families(ScrapeFilter.of(params), Collections.singletonList(unindexed)))
+      .containsExactlyInAnyOrder("vertx_http_server_requestCount_total", "vertx_http_server_responseTime_histogram_seconds");
+
+    params = MultiMap.caseInsensitiveMultiMap().add("name[]", "vertx_eventbus_processingTime_histogram_seconds_count");
+    assertThat(families(ScrapeFilter.of(params), Collections.singletonList(unindexed)))
+      .containsExactly("vertx_eventbus_processingTime_histogram_seconds");
+  }
+
+  @Test
+  public void shouldRejectUnknownDomain() {
+    MultiMap params = MultiMap.caseInsensitiveMultiMap().add("domain", "UNKNOWN");
+
+    assertThatThrownBy(() -> ScrapeFilter.of(params))
+      .isInstanceOf(IllegalArgumentException.class)
+      .hasMessageContaining("UNKNOWN");
+  }
+
+  private List<String> families(ScrapeFilter filter) {
+    return families(filter, Collections.emptyList());
+  }
+
+  private List<String> families(ScrapeFilter filter, List<Collector> unindexed) {
+    List<String> names = new ArrayList<>();
+    Enumeration<MetricFamilySamples> families = filter.filter(registry, unindexed);
+    while (families.hasMoreElements()) {
+      names.add(families.nextElement().name);
+    }
+    return names;
+  }
+
+  private static MetricFamilySamples family(String name) {
+    return new MetricFamilySamples(name, Collector.Type.HISTOGRAM, " ", Collections.singletonList(
+      new MetricFamilySamples.Sample(name + "_count", Collections.emptyList(), Collections.emptyList(), 1)));
+  }
+}
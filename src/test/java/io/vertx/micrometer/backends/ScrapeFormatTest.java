@@ -0,0 +1,78 @@
+package io.vertx.micrometer.backends;
+
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Joel Takvorian
+ */
+public class ScrapeFormatTest {
+
+  private PrometheusMeterRegistry registry;
+
+  @Before
+  public void setUp() {
+    registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+  }
+
+  @Test
+  public void shouldNegotiateFormat() {
+    assertThat(ScrapeFormat.negotiate(null)).isEqualTo(ScrapeFormat.TEXT);
+    assertThat(ScrapeFormat.negotiate("application/json")).isEqualTo(ScrapeFormat.TEXT);
+    assertThat(ScrapeFormat.negotiate("text/plain;version=0.0.4")).isEqualTo(ScrapeFormat.TEXT);
+    assertThat(ScrapeFormat.negotiate("application/openmetrics-text; version=0.0.1,text/plain;version=0.0.4;q=0.5,*/*;q=0.1"))
+      .isEqualTo(ScrapeFormat.OPENMETRICS);
+    assertThat(ScrapeFormat.negotiate("application/vnd.google.protobuf;proto=io.prometheus.client.MetricFamily;encoding=delimited;q=0.7,text/plain;version=0.0.4;q=0.3"))
+      .isEqualTo(ScrapeFormat.PROTOBUF);
+    assertThat(ScrapeFormat.negotiate("application/vnd.google.protobuf;proto=io.prometheus.client.MetricFamily;encoding=text"))
+      .isEqualTo(ScrapeFormat.TEXT);
+  }
+
+  @Test
+  public void shouldWriteOpenMetrics() throws Exception {
+    registry.counter("my.counter", "key", "a\"b").increment();
+    registry.gauge("my.gauge", 2.0);
+
+    String text = new String(write(ScrapeFormat.OPENMETRICS), StandardCharsets.UTF_8);
+    assertThat(text)
+      .contains("# TYPE my_counter counter\n")
+      .contains("my_counter_total{key=\"a\\\"b\"} 1.0\n")
+      .contains("# TYPE my_gauge gauge\n")
+      .contains("my_gauge 2.0\n")
+      .endsWith("# EOF\n");
+  }
+
+  @Test
+  public void shouldWriteDelimitedProtobuf() throws Exception {
+    registry.counter("my.counter").increment(3);
+
+    byte[] bytes = write(ScrapeFormat.PROTOBUF);
+    // Length of the first and only family, then its name (field 1, length-delimited)
+    assertThat(bytes[0] & 0xFF).isEqualTo(bytes.length - 1);
+    String name = "my_counter_total";
+    assertThat(bytes[1]).isEqualTo((byte) 0x0A);
+    assertThat(bytes[2]).isEqualTo((byte) name.length());
+    assertThat(new String(bytes, 3, name.length(), StandardCharsets.UTF_8)).isEqualTo(name);
+    // Counter value (Metric field 3, Counter field 1 as a fixed 64 bits double), at the end of the message
+    byte[] value = new byte[8];
+    System.arraycopy(bytes, bytes.length - 8, value, 0, 8);
+    long bits = 0;
+    for (int i = 7; i >= 0; i--) {
+      bits = (bits << 8) | (value[i] & 0xFF);
+    }
+    assertThat(Double.longBitsToDouble(bits)).isEqualTo(3.0);
+  }
+
+  private byte[] write(ScrapeFormat format) throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    format.write(out, registry.getPrometheusRegistry().metricFamilySamples());
+    return out.toByteArray();
+  }
+}
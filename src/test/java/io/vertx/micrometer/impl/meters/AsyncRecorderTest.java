@@ -0,0 +1,96 @@
+package io.vertx.micrometer.impl.meters;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.vertx.micrometer.Label;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.EnumSet;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Joel Takvorian
+ */
+public class AsyncRecorderTest {
+
+  private MeterRegistry registry;
+  private AsyncRecorder recorder;
+
+  @Before
+  public void setUp() {
+    registry = new SimpleMeterRegistry();
+    // Long delay: updates are applied by explicit drains
+    recorder = new AsyncRecorder(registry, 4, 60_000);
+  }
+
+  @After
+  public void tearDown() {
+    recorder.close();
+  }
+
+  @Test
+  public void shouldApplyUpdatesWhenDrained() {
+    Counters counters = new Counters("my_counter", "", registry, EnumSet.allOf(Label.class), 0, false, recorder, Label.EB_ADDRESS);
+    Timers timers = new Timers("my_timer", "", registry, EnumSet.allOf(Label.class), 0, false, recorder, 1, Label.EB_ADDRESS);
+    counters.get("addr1").increment();
+    counters.get("addr1").increment(2);
+    timers.get("addr1").record(5, TimeUnit.MILLISECONDS);
+
+    Counter c = registry.find("my_counter").tags("address", "addr1").counter();
+    Timer t = registry.find("my_timer").tags("address", "addr1").timer();
+    assertThat(c.count()).isEqualTo(0d);
+    assertThat(t.count()).isEqualTo(0);
+
+    recorder.drain();
+    assertThat(c.count()).isEqualTo(3d);
+    assertThat(t.count()).isEqualTo(1);
+    assertThat(t.totalTime(TimeUnit.MILLISECONDS)).isEqualTo(5d);
+    assertThat(counters.get("addr1").count()).isEqualTo(3d);
+  }
+
+  @Test
+  public void shouldDropUpdatesWhenFull() {
+    Counters counters = new Counters("my_counter", "", registry, EnumSet.allOf(Label.class), 0, false, recorder, Label.EB_ADDRESS);
+    for (int i = 0; i < 6; i++) {
+      counters.get("addr1").increment();
+    }
+    recorder.drain();
+    assertThat(registry.find("my_counter").counter().count()).isEqualTo(4d);
+    assertThat(registry.find("vertx.recording.dropped").counter().count()).isEqualTo(2d);
+
+    // Room again once drained
+    counters.get("addr1").increment();
+    recorder.drain();
+    assertThat(registry.find("my_counter").counter().count()).isEqualTo(5d);
+  }
+
+  @Test
+  public void shouldApplyPendingUpdatesOnClose() {
+    Counters counters = new Counters("my_counter", "", registry, EnumSet.allOf(Label.class), 0, false, recorder, Label.EB_ADDRESS);
+    counters.get("addr1").increment();
+    recorder.close();
+    assertThat(registry.find("my_counter").counter().count()).isEqualTo(1d);
+  }
+
+  @Test
+  public void shouldSkipFailingUpdates() {
+    Counters counters = new Counters("my_counter", "", registry, EnumSet.allOf(Label.class), 0, false, recorder, Label.EB_ADDRESS);
+    recorder.record(value -> {
+      throw new IllegalStateException("expected failure");
+    }, 1);
+    counters.get("addr1").increment();
+    recorder.drain();
+    assertThat(registry.find("my_counter").counter().count()).isEqualTo(1d);
+
+    // The failing update is not applied again
+    counters.get("addr1").increment();
+    recorder.drain();
+    assertThat(registry.find("my_counter").counter().count()).isEqualTo(2d);
+  }
+}
@@ -0,0 +1,27 @@
+package io.vertx.micrometer.impl.meters;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Joel Takvorian
+ */
+public class CoarseClockTest {
+
+  @Test
+  public void shouldAdvanceAtResolution() throws InterruptedException {
+    CoarseClock clock = new CoarseClock(5);
+    try {
+      long start = clock.monotonicTime();
+      assertThat(clock.monotonicTime()).isEqualTo(start);
+      Thread.sleep(50);
+      long end = clock.monotonicTime();
+      assertThat(end - start).isBetween(TimeUnit.MILLISECONDS.toNanos(30), TimeUnit.SECONDS.toNanos(5));
+    } finally {
+      clock.close();
+    }
+  }
+}
@@ -0,0 +1,51 @@
+package io.vertx.micrometer.impl.meters;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Joel Takvorian
+ */
+public class CompactHistogramTest {
+
+  @Test
+  public void shouldIncludeUpperBoundInBucket() {
+    for (int i = 0; i < CompactHistogram.BUCKETS; i++) {
+      long bound = CompactHistogram.upperBound(i);
+      assertThat(CompactHistogram.bucket(bound)).isEqualTo(i);
+      assertThat(CompactHistogram.bucket(bound + 1)).isEqualTo(i + 1);
+    }
+    assertThat(CompactHistogram.bucket(0)).isEqualTo(0);
+    assertThat(CompactHistogram.bucket(Long.MAX_VALUE)).isEqualTo(CompactHistogram.BUCKETS);
+  }
+
+  @Test
+  public void shouldCountAndSum() {
+    CompactHistogram histogram = new CompactHistogram();
+    histogram.record(TimeUnit.MILLISECONDS.toNanos(3));
+    histogram.record(TimeUnit.MILLISECONDS.toNanos(7));
+    histogram.record(TimeUnit.MINUTES.toNanos(5));
+    histogram.record(-1);
+
+    long[] counts = histogram.counts();
+    assertThat(counts[CompactHistogram.bucket(TimeUnit.MILLISECONDS.toNanos(3))]).isEqualTo(1);
+    assertThat(counts[CompactHistogram.BUCKETS]).isEqualTo(1);
+    assertThat(histogram.count()).isEqualTo(3);
+    assertThat(histogram.totalNanos()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(10) + TimeUnit.MINUTES.toNanos(5));
+  }
+
+  @Test
+  public void shouldEstimatePercentiles() {
+    CompactHistogram histogram = new CompactHistogram();
+    assertThat(CompactHistogram.percentile(histogram.counts(), 0.5)).isEqualTo(0);
+    for (int i = 1; i <= 1000; i++) {
+      histogram.record(TimeUnit.MICROSECONDS.toNanos(i * 10));
+    }
+    long[] counts = histogram.counts();
+    assertThat(CompactHistogram.percentile(counts, 0.5)).isBetween(TimeUnit.MILLISECONDS.toNanos(4) * 1d, TimeUnit.MILLISECONDS.toNanos(6) * 1d);
+    assertThat(CompactHistogram.percentile(counts, 0.99)).isBetween(TimeUnit.MILLISECONDS.toNanos(8) * 1d, TimeUnit.MILLISECONDS.toNanos(11) * 1d);
+  }
+}
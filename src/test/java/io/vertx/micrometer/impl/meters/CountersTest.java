@@ -1,7 +1,9 @@
 package io.vertx.micrometer.impl.meters;
 
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import io.vertx.micrometer.Label;
 import io.vertx.micrometer.Match;
@@ -19,12 +21,10 @@ import static org.assertj.core.api.Assertions.assertThat;
  */
 public class CountersTest {
 
-  private static final EnumSet<Label> ALL_LABELS = EnumSet.allOf(Label.class);
-
   @Test
   public void shouldAliasCounterLabel() {
     MeterRegistry registry = new SimpleMeterRegistry();
-    BackendRegistries.registerMatchers(registry, ALL_LABELS, Collections.singletonList(new Match()
+    BackendRegistries.registerMatchers(registry, Collections.singletonList(new Match()
       .setLabel("address")
       .setType(MatchType.REGEX)
       .setValue("addr1")
@@ -45,7 +45,7 @@ public class CountersTest {
   @Test
   public void shouldIgnoreCounterLabel() {
     MeterRegistry registry = new SimpleMeterRegistry();
-    BackendRegistries.registerMatchers(registry, ALL_LABELS, Collections.singletonList(new Match()
+    BackendRegistries.registerMatchers(registry, Collections.singletonList(new Match()
       .setLabel("address")
       .setType(MatchType.REGEX)
       .setValue(".*")
@@ -62,4 +62,155 @@ public class CountersTest {
     c = registry.find("my_counter").tags("address", "addr2").counter();
     assertThat(c).isNull();
   }
+
+  @Test
+  public void shouldReuseCachedCounter() {
+    MeterRegistry registry = new SimpleMeterRegistry();
+    BackendRegistries.registerMatchers(registry, Collections.emptyList());
+    Counters counters = new Counters("my_counter", "", registry, Label.EB_ADDRESS, Label.EB_SIDE);
+    Counter c = counters.get("addr1", "local");
+    assertThat(counters.get("addr1", "local")).isSameAs(c);
+    assertThat(counters.get("addr1", "remote")).isNotSameAs(c);
+    counters.get("addr1", "local").increment();
+    counters.get(new String[] {"addr1", "local"}).increment();
+
+    assertThat(registry.find("my_counter").tags("address", "addr1", "side", "local").counter().count()).isEqualTo(2d);
+    assertThat(registry.find("my_counter").counters()).hasSize(2);
+  }
+
+  @Test
+  public void shouldBindFirstLabels() {
+    MeterRegistry registry = new SimpleMeterRegistry();
+    EnumSet<Label> labels = EnumSet.of(Label.LOCAL, Label.REMOTE);
+    BackendRegistries.registerMatchers(registry, Collections.emptyList());
+    Counters counters = new Counters("my_counter", "", registry, labels, 0, Label.LOCAL, Label.REMOTE, Label.CLASS_NAME);
+    MeterFamily.Bound<Counter> bound = counters.bind("local1");
+    bound.get("remote1", "Foo").increment();
+    bound.get("remote1", "Bar").increment();
+    bound.get("remote2", "Foo").increment();
+    assertThat(bound.get("remote1", "Foo")).isSameAs(counters.get("local1", "remote1", "Foo"));
+
+    assertThat(registry.find("my_counter").tags("local", "local1", "remote", "remote1").counter().count()).isEqualTo(2d);
+    assertThat(registry.find("my_counter").tags("local", "local1", "remote", "remote2").counter().count()).isEqualTo(1d);
+
+    // Remaining labels are all disabled: same meter whatever the values
+    MeterFamily.Bound<Counter> fullyBound = counters.bind("local2", "remote1");
+    assertThat(fullyBound.get("Foo")).isSameAs(fullyBound.get("Bar"));
+  }
+
+  @Test
+  public void shouldDropDisabledLabels() {
+    MeterRegistry registry = new SimpleMeterRegistry();
+    Counters counters = new Counters("my_counter", "", registry, EnumSet.of(Label.EB_ADDRESS), 0, Label.EB_ADDRESS, Label.EB_SIDE);
+    counters.get("addr1", "local").increment();
+    counters.get("addr1", "remote").increment();
+    counters.get("addr1", null).increment();
+    assertThat(counters.get("addr1", null)).isSameAs(counters.get("addr1", "local"));
+
+    Counter c = registry.find("my_counter").counter();
+    assertThat(c.getId().getTags()).containsExactly(Tag.of("address", "addr1"));
+    assertThat(c.count()).isEqualTo(3d);
+  }
+
+  @Test
+  public void shouldCollapseOverflowingSeries() {
+    MeterRegistry registry = new SimpleMeterRegistry();
+    Counters counters = new Counters("my_counter", "", registry, EnumSet.allOf(Label.class), 2, Label.LOCAL, Label.REMOTE);
+    MeterFamily.Bound<Counter> bound = counters.bind("local1");
+    bound.get("remote1").increment();
+    bound.get("remote2").increment();
+    bound.get("remote3").increment();
+    counters.get("local1", "remote4").increment();
+    bound.get("remote1").increment();
+
+    assertThat(registry.find("my_counter").tags("local", "local1", "remote", "remote1").counter().count()).isEqualTo(2d);
+    assertThat(registry.find("my_counter").tags("local", "local1", "remote", "remote2").counter().count()).isEqualTo(1d);
+    assertThat(registry.find("my_counter").tags("local", MeterFamily.OVERFLOW, "remote", MeterFamily.OVERFLOW).counter().count()).isEqualTo(2d);
+    assertThat(registry.find("my_counter").counters()).hasSize(3);
+    assertThat(registry.get("vertx.series.overflow").tags("meter", "my_counter").counter().count()).isEqualTo(2d);
+  }
+
+  @Test
+  public void shouldKeepOverflowSeriesWhenBoundClosed() {
+    MeterRegistry registry = new SimpleMeterRegistry();
+    Counters counters = new Counters("my_counter", "", registry, EnumSet.of(Label.LOCAL), 1, Label.LOCAL, Label.REMOTE);
+    counters.get("local1", "remote1").increment();
+    MeterFamily.Bound<Counter> bound = counters.bind("local2");
+    bound.get("remote1").increment();
+    counters.get("local3", "remote1").increment();
+
+    bound.close();
+    assertThat(registry.find("my_counter").tags("local", MeterFamily.OVERFLOW).counter().count()).isEqualTo(2d);
+  }
+
+  @Test
+  public void shouldEvictIdleCounters() {
+    MeterRegistry registry = new SimpleMeterRegistry();
+    Counters counters = new Counters("my_counter", "", registry, Label.LOCAL, Label.REMOTE);
+    MeterFamily.Bound<Counter> bound = counters.bind("local1");
+    bound.get("remote1").increment();
+    bound.get("remote2").increment();
+
+    counters.evictIdle();
+    bound.get("remote1").increment();
+    counters.evictIdle();
+    assertThat(registry.find("my_counter").tags("remote", "remote1").counter().count()).isEqualTo(2d);
+    assertThat(registry.find("my_counter").tags("remote", "remote2").counter()).isNull();
+
+    // Evicted series are registered again when used, even through the bound family holding them, starting over
+    bound.get("remote2").increment();
+    assertThat(registry.find("my_counter").tags("remote", "remote2").counter().count()).isEqualTo(1d);
+  }
+
+  @Test
+  public void shouldOnlyRemoveMetersRegisteredByTheFamily() {
+    MeterRegistry registry = new SimpleMeterRegistry();
+    // E.g. two Vert.x instances sharing the same registry
+    Counters counters1 = new Counters("my_counter", "", registry, Label.LOCAL);
+    Counters counters2 = new Counters("my_counter", "", registry, Label.LOCAL);
+    counters1.get("local1").increment();
+    counters2.get("local1").increment();
+
+    counters2.evictIdle();
+    counters2.evictIdle();
+    counters2.removeAll();
+    counters1.get("local1").increment();
+    assertThat(registry.find("my_counter").tags("local", "local1").counter().count()).isEqualTo(3d);
+
+    counters1.removeAll();
+    assertThat(registry.find("my_counter").counters()).isEmpty();
+  }
+
+  @Test
+  public void shouldRemoveSeriesWhenAllBoundsClosed() {
+    MeterRegistry registry = new SimpleMeterRegistry();
+    Counters counters = new Counters("my_counter", "", registry, Label.LOCAL, Label.REMOTE);
+    MeterFamily.Bound<Counter> client1 = counters.bind("local");
+    MeterFamily.Bound<Counter> client2 = counters.bind("local");
+    client1.get("remote1").increment();
+    client1.get("remote2").increment();
+    client2.get("remote2").increment();
+
+    client1.close();
+    assertThat(registry.find("my_counter").tags("remote", "remote1").counter()).isNull();
+    assertThat(registry.find("my_counter").tags("remote", "remote2").counter().count()).isEqualTo(2d);
+
+    client2.close();
+    assertThat(registry.find("my_counter").counters()).isEmpty();
+  }
+
+  @Test
+  public void shouldRegisterShardedCounterAsFunctionCounter() {
+    MeterRegistry registry = new SimpleMeterRegistry();
+    Counters counters = new Counters("my_counter", "", registry, EnumSet.allOf(Label.class), 0, true, null, Label.EB_ADDRESS);
+    counters.get("addr1").increment();
+    counters.get("addr1").increment(2);
+    counters.get("addr2").increment();
+
+    FunctionCounter c = registry.find("my_counter").tags("address", "addr1").functionCounter();
+    assertThat(c.count()).isEqualTo(3d);
+    assertThat(counters.get("addr1").getId()).isEqualTo(c.getId());
+    assertThat(registry.find("my_counter").tags("address", "addr2").functionCounter().count()).isEqualTo(1d);
+    assertThat(registry.find("my_counter").counter()).isNull();
+  }
 }
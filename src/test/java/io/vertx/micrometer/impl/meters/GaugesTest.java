@@ -10,7 +10,8 @@ import io.vertx.micrometer.backends.BackendRegistries;
 import org.junit.Test;
 
 import java.util.Collections;
-import java.util.EnumSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.LongAdder;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -20,12 +21,10 @@ import static org.assertj.core.api.Assertions.assertThat;
  */
 public class GaugesTest {
 
-  private static final EnumSet<Label> ALL_LABELS = EnumSet.allOf(Label.class);
-
   @Test
   public void shouldAliasGaugeLabel() {
     MeterRegistry registry = new SimpleMeterRegistry();
-    BackendRegistries.registerMatchers(registry, ALL_LABELS, Collections.singletonList(new Match()
+    BackendRegistries.registerMatchers(registry, Collections.singletonList(new Match()
       .setLabel("address")
       .setType(MatchType.REGEX)
       .setValue("addr1")
@@ -46,7 +45,7 @@ public class GaugesTest {
   @Test
   public void shouldIgnoreGaugeLabel() {
     MeterRegistry registry = new SimpleMeterRegistry();
-    BackendRegistries.registerMatchers(registry, ALL_LABELS, Collections.singletonList(new Match()
+    BackendRegistries.registerMatchers(registry, Collections.singletonList(new Match()
       .setLabel("address")
       .setType(MatchType.REGEX)
       .setValue(".*")
@@ -63,4 +62,134 @@ public class GaugesTest {
     g = registry.find("my_gauge").tags("address", "addr2").gauge();
     assertThat(g).isNull();
   }
+
+  @Test
+  public void shouldShareGaugeAcrossThreads() throws InterruptedException {
+    MeterRegistry registry = new SimpleMeterRegistry();
+    BackendRegistries.registerMatchers(registry, Collections.singletonList(new Match()
+      .setLabel("address")
+      .setType(MatchType.REGEX)
+      .setValue(".*")
+      .setAlias("_")));
+    Gauges<LongAdder> gauges = new Gauges<>("my_gauge", "", LongAdder::new, LongAdder::doubleValue, registry, Label.EB_ADDRESS);
+    int threads = 8;
+    int loops = 1000;
+    CountDownLatch start = new CountDownLatch(1);
+    CountDownLatch done = new CountDownLatch(threads);
+    for (int i = 0; i < threads; i++) {
+      String address = "addr" + i;
+      new Thread(() -> {
+        try {
+          start.await();
+          for (int j = 0; j < loops; j++) {
+            gauges.get(address).increment();
+          }
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        } finally {
+          done.countDown();
+        }
+      }).start();
+    }
+    start.countDown();
+    done.await();
+
+    Gauge g = registry.find("my_gauge").tags("address", "_").gauge();
+    assertThat(g.value()).isEqualTo((double) threads * loops);
+    assertThat(gauges.get("addr0")).isSameAs(gauges.get("addr1"));
+  }
+
+  @Test
+  public void shouldEvictIdleGaugesAtZero() {
+    MeterRegistry registry = new SimpleMeterRegistry();
+    Gauges<LongAdder> gauges = new Gauges<>("my_gauge", "", LongAdder::new, LongAdder::doubleValue, registry, Label.EB_ADDRESS);
+    gauges.get("addr1").increment();
+    gauges.get("addr2").increment();
+    gauges.get("addr2").decrement();
+
+    // First pass: both gauges were used since creation
+    gauges.evictIdle();
+    assertThat(registry.find("my_gauge").gauges()).hasSize(2);
+    // Second pass: both idle, but only addr2 is back to zero
+    gauges.evictIdle();
+    assertThat(registry.find("my_gauge").tags("address", "addr1").gauge().value()).isEqualTo(1d);
+    assertThat(registry.find("my_gauge").tags("address", "addr2").gauge()).isNull();
+
+    gauges.get("addr2").increment();
+    assertThat(registry.find("my_gauge").tags("address", "addr2").gauge().value()).isEqualTo(1d);
+  }
+
+  @Test
+  public void shouldNotSplitGaugeUpdatesWhenEvictedConcurrently() throws InterruptedException {
+    MeterRegistry registry = new SimpleMeterRegistry();
+    Gauges<LongAdder> gauges = new Gauges<>("my_gauge", "", LongAdder::new, LongAdder::doubleValue, registry, Label.EB_ADDRESS);
+    int threads = 4;
+    int loops = 100_000;
+    AtomicBoolean running = new AtomicBoolean(true);
+    Thread evictor = new Thread(() -> {
+      while (running.get()) {
+        gauges.evictIdle();
+      }
+    });
+    evictor.start();
+    CountDownLatch done = new CountDownLatch(threads);
+    for (int i = 0; i < threads; i++) {
+      new Thread(() -> {
+        for (int j = 0; j < loops; j++) {
+          gauges.get("addr1").increment();
+          gauges.get("addr1").decrement();
+        }
+        done.countDown();
+      }).start();
+    }
+    done.await();
+    running.set(false);
+    evictor.join();
+
+    // Registered again if the last eviction removed it
+    gauges.get("addr1");
+    // An increment and its decrement must never end up on different series, which would leave one off zero
+    assertThat(registry.find("my_gauge").gauges()).hasSize(1);
+    assertThat(registry.find("my_gauge").tags("address", "addr1").gauge().value()).isEqualTo(0d);
+  }
+
+  @Test
+  public void shouldKeepGaugesInUseWhenClosed() {
+    MeterRegistry registry = new SimpleMeterRegistry();
+    Gauges<LongAdder> gauges = new Gauges<>("my_gauge", "", LongAdder::new, LongAdder::doubleValue, registry, Label.LOCAL, Label.REMOTE);
+    MeterFamily.Bound<LongAdder> bound = gauges.bind("local");
+    bound.get("remote1").increment();
+    bound.get("remote2").increment();
+    bound.get("remote2").decrement();
+
+    bound.close();
+    assertThat(registry.find("my_gauge").tags("remote", "remote1").gauge().value()).isEqualTo(1d);
+    assertThat(registry.find("my_gauge").tags("remote", "remote2").gauge()).isNull();
+  }
+
+  @Test
+  public void shouldRemoveGaugesReleasedInUseOnceBackToZero() {
+    MeterRegistry registry = new SimpleMeterRegistry();
+    Gauges<LongAdder> gauges = new Gauges<>("my_gauge", "", LongAdder::new, LongAdder::doubleValue, registry, Label.LOCAL, Label.REMOTE);
+    MeterFamily.Bound<LongAdder> bound = gauges.bind("local");
+    bound.get("remote1").increment();
+    bound.close();
+
+    // Late callback, e.g. a connection closed after its server
+    bound.get("remote1").decrement();
+    Gauge g = registry.find("my_gauge").tags("remote", "remote1").gauge();
+    // The first read at zero may race with the late update, the next one removes the gauge
+    assertThat(g.value()).isEqualTo(0d);
+    assertThat(registry.find("my_gauge").tags("remote", "remote1").gauge()).isNotNull();
+    assertThat(g.value()).isEqualTo(0d);
+    assertThat(registry.find("my_gauge").tags("remote", "remote1").gauge()).isNull();
+
+    // Not held anymore by the closed bound family
+    bound.get("remote1").increment();
+    assertThat(registry.find("my_gauge").tags("remote", "remote1").gauge().value()).isEqualTo(1d);
+    bound.get("remote1").decrement();
+    gauges.evictIdle();
+    gauges.evictIdle();
+    assertThat(registry.find("my_gauge").tags("remote", "remote1").gauge()).isNull();
+  }
 }
@@ -19,12 +19,10 @@ import static org.assertj.core.api.Assertions.assertThat;
  */
 public class SummariesTest {
 
-  private static final EnumSet<Label> ALL_LABELS = EnumSet.allOf(Label.class);
-
   @Test
   public void shouldAliasSummaryLabel() {
     MeterRegistry registry = new SimpleMeterRegistry();
-    BackendRegistries.registerMatchers(registry, ALL_LABELS, Collections.singletonList(new Match()
+    BackendRegistries.registerMatchers(registry, Collections.singletonList(new Match()
       .setLabel("address")
       .setType(MatchType.REGEX)
       .setValue("addr1")
@@ -47,7 +45,7 @@ public class SummariesTest {
   @Test
   public void shouldIgnoreSummaryLabel() {
     MeterRegistry registry = new SimpleMeterRegistry();
-    BackendRegistries.registerMatchers(registry, ALL_LABELS, Collections.singletonList(new Match()
+    BackendRegistries.registerMatchers(registry, Collections.singletonList(new Match()
       .setLabel("address")
       .setType(MatchType.REGEX)
       .setValue(".*")
@@ -65,4 +63,24 @@ public class SummariesTest {
     s = registry.find("my_summary").tags("address", "addr2").summary();
     assertThat(s).isNull();
   }
+
+  @Test
+  public void shouldSampleSummaryDistribution() {
+    MeterRegistry registry = new SimpleMeterRegistry();
+    Summaries summaries = new Summaries("my_summary", "", registry, EnumSet.allOf(Label.class), 0, false, null, 0.5, Label.EB_ADDRESS);
+    for (int i = 0; i < 10_000; i++) {
+      summaries.get("addr1").record(2);
+    }
+    summaries.get("addr1").record(5);
+
+    DistributionSummary s = summaries.get("addr1");
+    assertThat(s.count()).isEqualTo(10_001);
+    assertThat(s.totalAmount()).isEqualTo(20_005d);
+    // The maximum is exact, whether the value was sampled or not
+    assertThat(s.max()).isEqualTo(5d);
+    // The distribution keeps the summary name and only gets the sampled values
+    long sampled = registry.find("my_summary").tags("address", "addr1").summary().count();
+    assertThat(sampled).isBetween(4_000L, 6_000L);
+    assertThat(registry.find("my_summary" + MeterFamily.EXACT_SUFFIX).tags("address", "addr1").meter()).isNotNull();
+  }
 }
@@ -1,8 +1,13 @@
 package io.vertx.micrometer.impl.meters;
 
+import io.micrometer.core.instrument.FunctionTimer;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Statistic;
 import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.vertx.core.AbstractVerticle;
+import io.vertx.core.Vertx;
 import io.vertx.micrometer.Label;
 import io.vertx.micrometer.Match;
 import io.vertx.micrometer.MatchType;
@@ -10,22 +15,26 @@ import io.vertx.micrometer.backends.BackendRegistries;
 import org.junit.Test;
 
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
 
 /**
  * @author Joel Takvorian
  */
 public class TimersTest {
 
-  private static final EnumSet<Label> ALL_LABELS = EnumSet.allOf(Label.class);
-
   @Test
   public void shouldAliasTimerLabel() {
     MeterRegistry registry = new SimpleMeterRegistry();
-    BackendRegistries.registerMatchers(registry, ALL_LABELS, Collections.singletonList(new Match()
+    BackendRegistries.registerMatchers(registry, Collections.singletonList(new Match()
       .setLabel("address")
       .setType(MatchType.REGEX)
       .setValue("addr1")
@@ -48,7 +57,7 @@ public class TimersTest {
   @Test
   public void shouldIgnoreTimerLabel() {
     MeterRegistry registry = new SimpleMeterRegistry();
-    BackendRegistries.registerMatchers(registry, ALL_LABELS, Collections.singletonList(new Match()
+    BackendRegistries.registerMatchers(registry, Collections.singletonList(new Match()
       .setLabel("address")
       .setType(MatchType.REGEX)
       .setValue(".*")
@@ -66,4 +75,91 @@ public class TimersTest {
     t = registry.find("my_timer").tags("address", "addr2").timer();
     assertThat(t).isNull();
   }
+
+  @Test
+  public void shouldMergeShardedTimers() throws InterruptedException {
+    MeterRegistry registry = new SimpleMeterRegistry();
+    Timers timers = new Timers("my_timer", "", registry, EnumSet.allOf(Label.class), 0, true, null, 1, Label.EB_ADDRESS);
+    Vertx vertx = Vertx.vertx();
+    Set<Integer> shards = ConcurrentHashMap.newKeySet();
+    try {
+      CountDownLatch latch = new CountDownLatch(2);
+      // Two verticles, deployed on two distinct event loops
+      for (int i = 0; i < 2; i++) {
+        vertx.deployVerticle(new AbstractVerticle() {
+          @Override
+          public void start() {
+            shards.add(EventLoopIndex.get());
+            timers.get("addr1").record(5, TimeUnit.MILLISECONDS);
+            timers.get("addr1").record(5, TimeUnit.MILLISECONDS);
+            latch.countDown();
+          }
+        });
+      }
+      // Not on an event loop: shared shard
+      timers.get("addr1").record(10, TimeUnit.MILLISECONDS);
+      assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+    } finally {
+      vertx.close();
+    }
+
+    // Each event loop recorded into its own shard
+    assertThat(shards).hasSize(2).allMatch(i -> i >= 0);
+    FunctionTimer t = registry.find("my_timer").tags("address", "addr1").functionTimer();
+    assertThat(t.count()).isEqualTo(5d);
+    assertThat(t.totalTime(TimeUnit.MILLISECONDS)).isEqualTo(30d);
+    assertThat(timers.get("addr1").count()).isEqualTo(5);
+  }
+
+  @Test
+  public void shouldSampleTimerDistribution() {
+    MeterRegistry registry = new SimpleMeterRegistry();
+    Timers timers = new Timers("my_timer", "", registry, EnumSet.allOf(Label.class), 0, false, null, 0.5, Label.EB_ADDRESS);
+    for (int i = 0; i < 10_000; i++) {
+      timers.get("addr1").record(5, TimeUnit.MILLISECONDS);
+    }
+    timers.get("addr1").record(8, TimeUnit.MILLISECONDS);
+
+    Timer t = timers.get("addr1");
+    assertThat(t.count()).isEqualTo(10_001);
+    assertThat(t.totalTime(TimeUnit.MILLISECONDS)).isEqualTo(50_008d);
+    // The maximum is exact, whether the value was sampled or not
+    assertThat(t.max(TimeUnit.MILLISECONDS)).isEqualTo(8d);
+    // The distribution keeps the timer name and only gets the sampled values
+    long sampled = registry.find("my_timer").tags("address", "addr1").timer().count();
+    assertThat(sampled).isBetween(4_000L, 6_000L);
+    // Exact statistics are registered in the base time unit of the registry
+    Map<Statistic, Double> measurements = new EnumMap<>(Statistic.class);
+    registry.find("my_timer" + MeterFamily.EXACT_SUFFIX).tags("address", "addr1").meter().measure()
+      .forEach(m -> measurements.put(m.getStatistic(), m.getValue()));
+    assertThat(measurements).containsOnly(
+      entry(Statistic.COUNT, 10_001d),
+      entry(Statistic.TOTAL_TIME, 50.008),
+      entry(Statistic.MAX, 0.008));
+  }
+
+  @Test
+  public void shouldRecordIntoCompactHistogram() {
+    MeterRegistry registry = new SimpleMeterRegistry();
+    CompactHistograms histograms = new CompactHistograms();
+    Timers timers = new Timers("my_timer", "", registry, EnumSet.allOf(Label.class), 0, false, null, 1, histograms, Label.EB_ADDRESS);
+    for (int i = 1; i <= 100; i++) {
+      timers.get("addr1").record(i, TimeUnit.MILLISECONDS);
+    }
+
+    FunctionTimer t = registry.find("my_timer").tags("address", "addr1").functionTimer();
+    assertThat(t.count()).isEqualTo(100d);
+    assertThat(t.totalTime(TimeUnit.MILLISECONDS)).isEqualTo(5050d);
+    HistogramSnapshot snapshot = timers.get("addr1").takeSnapshot();
+    assertThat(snapshot.count()).isEqualTo(100);
+    // Estimates are within the 25% bucket error
+    assertThat(snapshot.percentileValues()[0].value(TimeUnit.MILLISECONDS)).isBetween(40d, 60d);
+    assertThat(histograms.get(t.getId())).isNotNull();
+
+    // The histogram goes away with the series
+    timers.evictIdle();
+    timers.evictIdle();
+    assertThat(registry.getMeters()).isEmpty();
+    assertThat(histograms.get(t.getId())).isNull();
+  }
 }